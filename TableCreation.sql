@@ -10,6 +10,10 @@ CREATE TABLE users (
                        role VARCHAR(255) NOT NULL -- Mapeia o enum UserRole
 );
 
+-- Índices da listagem de usuários (filtro por papel e por início do nome, sem diferenciar maiúsculas)
+CREATE INDEX idx_users_role ON users (role);
+CREATE INDEX idx_users_name_lower ON users (lower(name) text_pattern_ops);
+
 -- Script para criar a tabela 'vehicles'
 CREATE TABLE vehicles (
                           id BIGSERIAL PRIMARY KEY,
@@ -21,12 +25,20 @@ CREATE TABLE vehicles (
                           sold BOOLEAN DEFAULT FALSE,
                           vehicle_type VARCHAR(255),
                           vendor_id BIGINT NOT NULL,
+                          version BIGINT NOT NULL DEFAULT 0, -- @Version (bloqueio otimista)
                           CONSTRAINT fk_vendor
                               FOREIGN KEY (vendor_id)
                                   REFERENCES users (id)
                                   ON DELETE CASCADE -- Se o vendedor for excluído, seus veículos também serão
 );
 
+-- O Hibernate aloca os IDs de veículos em blocos de 50 (allocationSize do @SequenceGenerator)
+ALTER SEQUENCE vehicles_id_seq INCREMENT BY 50;
+
+-- Índices usados pela busca por marca/modelo (os termos são resolvidos para igualdades pelo VehicleSearchIndex)
+CREATE INDEX idx_vehicles_brand ON vehicles (brand);
+CREATE INDEX idx_vehicles_model ON vehicles (model);
+
 -- Script para criar a tabela 'vendor_sale'
 CREATE TABLE vendor_sale (
                              id BIGSERIAL PRIMARY KEY,
@@ -50,6 +62,11 @@ CREATE TABLE vendor_sale (
                              CONSTRAINT unique_vehicle_sale UNIQUE (vehicle_id) -- Garante que um veículo só pode ser vendido uma vez
 );
 
+-- Índices da listagem de vendas (filtros por vendedor, comprador e período)
+CREATE INDEX idx_vendor_sale_vendor_date ON vendor_sale (vendor_id, sale_date);
+CREATE INDEX idx_vendor_sale_buyer_date ON vendor_sale (buyer_id, sale_date);
+CREATE INDEX idx_vendor_sale_date ON vendor_sale (sale_date);
+
 -- Script para criar a tabela 'purchase_request' (NOVA TABELA)
 CREATE TABLE purchase_request (
                                   id BIGSERIAL PRIMARY KEY,
@@ -59,6 +76,7 @@ CREATE TABLE purchase_request (
                                   request_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
                                   status VARCHAR(255) NOT NULL, -- Ex: 'PENDING', 'ACCEPTED', 'DENIED'
                                   response_date TIMESTAMP WITHOUT TIME ZONE, -- Data de aceitação/negação (pode ser nula)
+                                  version BIGINT NOT NULL DEFAULT 0, -- @Version (bloqueio otimista)
                                   CONSTRAINT fk_pr_vehicle
                                       FOREIGN KEY (vehicle_id)
                                           REFERENCES vehicles (id)
@@ -70,10 +88,22 @@ CREATE TABLE purchase_request (
                                   CONSTRAINT fk_pr_vendor
                                       FOREIGN KEY (vendor_id)
                                           REFERENCES users (id)
-                                          ON DELETE RESTRICT,
-                                  CONSTRAINT unique_pending_request_for_vehicle UNIQUE (vehicle_id, status) WHERE status = 'PENDING'
+                                          ON DELETE RESTRICT
 );
 
+-- Migração de bancos existentes, antes do índice abaixo: nega as solicitações PENDENTES que têm outra pendente
+-- mais antiga para o mesmo veículo (a mais antiga é mantida) e lista os IDs negados. Sem duplicadas, não altera nada.
+UPDATE purchase_request SET status = 'DENIED', response_date = CURRENT_TIMESTAMP, version = version + 1
+WHERE status = 'PENDING' AND EXISTS (
+    SELECT 1 FROM purchase_request older
+    WHERE older.vehicle_id = purchase_request.vehicle_id AND older.status = 'PENDING' AND older.id < purchase_request.id
+)
+RETURNING id;
+
+-- No máximo uma solicitação PENDENTE por veículo. É um índice parcial (restrições UNIQUE não aceitam WHERE);
+-- a criação de solicitações depende dele (INSERT ... ON CONFLICT DO NOTHING em PurchaseRequestRepoImpl).
+CREATE UNIQUE INDEX unique_pending_request_for_vehicle ON purchase_request (vehicle_id) WHERE status = 'PENDING';
+
 -- Script para criar a tabela de junção 'favorites' (ManyToMany entre User e Vehicle)
 CREATE TABLE favorites (
                            user_id BIGINT NOT NULL,
@@ -3,8 +3,10 @@ package br.com.autofacil.api;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AutofacilApiApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(AutofacilApiApplication.class, args);
@@ -0,0 +1,95 @@
+package br.com.autofacil.api.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de requisições simultâneas que se ajusta à latência observada (AIMD).
+ *
+ * Cada requisição concluída dentro da latência alvo aumenta o limite em 1/limite (cerca de +1 a cada
+ * "janela" de requisições, como no controle de congestionamento do TCP), mas só quando o limite atual
+ * está de fato sendo usado. Uma requisição acima da latência alvo reduz o limite multiplicativamente,
+ * no máximo uma vez por janela: só conta a requisição lenta que começou depois da última redução. As que
+ * já estavam em andamento refletem a carga anterior, e reduzir uma vez por cada uma delas levaria o limite
+ * ao mínimo em um único pico.
+ * Assim, quando o banco fica lento o limite cai e o excedente é recusado logo, em vez de se acumular
+ * nas filas do Tomcat e do pool de conexões até os clientes desistirem.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double limit;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+        this(initialLimit, minLimit, maxLimit, latencyThreshold, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limites inválidos: é preciso 1 <= mínimo <= inicial <= máximo.");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = initialLimit;
+        this.nanoClock = nanoClock;
+        this.lastDecreaseNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Reserva uma vaga. Quem recebe {@code true} deve chamar {@link #release} ao terminar.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Devolve a vaga e ajusta o limite pela latência da requisição.
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        long now = nanoClock.getAsLong();
+
+        synchronized (this) {
+            if (latencyNanos > latencyThresholdNanos) {
+                if (now - latencyNanos - lastDecreaseNanos >= 0) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastDecreaseNanos = now;
+                }
+            } else if (inFlightBefore * 2 >= limit) {
+                // Não cresce enquanto a carga está bem abaixo do limite: o limite não provado não vale nada
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    /**
+     * Devolve a vaga sem usar a latência da requisição para ajustar o limite (ex: importações e exportações,
+     * cuja duração depende do tamanho do arquivo e não da saúde do servidor).
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
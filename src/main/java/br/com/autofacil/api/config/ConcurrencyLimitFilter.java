@@ -0,0 +1,55 @@
+package br.com.autofacil.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Controle de admissão da API: recusa com 503 e Retry-After as requisições acima do limite de concorrência
+ * do seu grupo (ver {@link RequestLimiters}). Fica antes da autenticação, para que uma requisição recusada
+ * não custe nem a validação do token.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private final RequestLimiters limiters;
+
+    public ConcurrencyLimitFilter(RequestLimiters limiters) {
+        this.limiters = limiters;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestLimiters.Group group = limiters.groupOf(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter limiter = group.limiter();
+        if (!limiter.tryAcquire()) {
+            group.rejected().increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Servidor sobrecarregado. Tente novamente em instantes.");
+            return;
+        }
+
+        boolean sampled = limiters.samplesLatency(request);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (sampled) {
+                limiter.release(System.nanoTime() - start);
+            } else {
+                limiter.release();
+            }
+        }
+    }
+}
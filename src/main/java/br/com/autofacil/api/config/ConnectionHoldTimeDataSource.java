@@ -0,0 +1,105 @@
+package br.com.autofacil.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que mede por quanto tempo cada conexão fica fora do pool, por endpoint: o timer
+ * db.connection.hold, com as tags 'method' e 'uri' (o padrão da rota, ex: /vehicles/{id}, como em
+ * http.server.requests). Conexões usadas fora de requisições (inicialização, tarefas agendadas) ficam com
+ * uri=none; as usadas antes de a rota ser resolvida (ex: autenticação por token), com uri=UNKNOWN.
+ *
+ * O tempo vai da entrega da conexão até o close, sem a espera pelo pool. Comparado à duração da requisição
+ * em http.server.requests, mostra se a conexão é devolvida antes da serialização da resposta.
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+    static final String METRIC = "db.connection.hold";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    /**
+     * @param meterRegistry Resolvido só no primeiro close: o DataSource é criado antes do registro de métricas.
+     */
+    public ConnectionHoldTimeDataSource(DataSource target, Supplier<MeterRegistry> meterRegistry) {
+        super(target);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        long start = System.nanoTime();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "close" -> {
+                            // Fechar de novo não faz nada, como em qualquer Connection
+                            if (closed.compareAndSet(false, true)) {
+                                try {
+                                    connection.close();
+                                } finally {
+                                    record(System.nanoTime() - start);
+                                }
+                            }
+                            return null;
+                        }
+                        default -> {
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void record(long nanos) {
+        Timer.builder(METRIC)
+                .description("Tempo em que a conexão com o banco ficou fora do pool")
+                .tags(endpoint())
+                .register(meterRegistry.get())
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Tags endpoint() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return Tags.of("method", "none", "uri", "none");
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+    }
+}
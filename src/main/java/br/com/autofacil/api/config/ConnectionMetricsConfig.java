@@ -0,0 +1,30 @@
+package br.com.autofacil.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Mede o tempo de uso das conexões por endpoint (ver {@link ConnectionHoldTimeDataSource}). Com
+ * spring.jpa.open-in-view=false, esse tempo deve ficar restrito às transações dos serviços.
+ */
+@Configuration
+public class ConnectionMetricsConfig {
+
+    @Bean
+    static BeanPostProcessor connectionHoldTime(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionHoldTimeDataSource)) {
+                    return new ConnectionHoldTimeDataSource(dataSource, meterRegistry::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+}
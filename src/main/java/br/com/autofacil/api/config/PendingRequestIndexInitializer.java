@@ -0,0 +1,75 @@
+package br.com.autofacil.api.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Garante o índice único parcial que impede duas solicitações PENDING para o mesmo veículo
+ * (usado por PurchaseRequestRepo.insertPending). O Hibernate não gera índices parciais a partir
+ * das entidades, então com ddl-auto=update o índice é criado aqui, na subida, antes de o servidor
+ * aceitar requisições. Em bancos criados pelo TableCreation.sql ele já existe e nada muda.
+ *
+ * Se já houver solicitações pendentes duplicadas, a criação falha e a subida é interrompida, com os IDs
+ * das duplicadas no erro. Nenhum dado é alterado aqui: quais solicitações negar é decisão de quem opera
+ * o banco, com a migração descrita no TableCreation.sql.
+ *
+ * O H2 dos testes não tem índices parciais; lá o mesmo efeito vem de uma coluna gerada que só é
+ * preenchida enquanto a solicitação está pendente, com um índice único comum (valores nulos não conflitam).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory") // o esquema precisa já ter sido criado/atualizado pelo Hibernate
+public class PendingRequestIndexInitializer {
+    static final String INDEX_NAME = "unique_pending_request_for_vehicle";
+
+    // Solicitações pendentes que têm outra pendente mais antiga para o mesmo veículo (as que a migração nega)
+    private static final String DUPLICATE_PENDING_IDS = """
+            SELECT id FROM purchase_request
+            WHERE status = 'PENDING' AND EXISTS (
+                SELECT 1 FROM purchase_request older
+                WHERE older.vehicle_id = purchase_request.vehicle_id AND older.status = 'PENDING' AND older.id < purchase_request.id
+            )
+            ORDER BY id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void createIndex() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+
+        try {
+            createIndex(database);
+        } catch (DataAccessException e) {
+            // Dados antigos com duas solicitações pendentes para o mesmo veículo: a subida para, apontando quais são
+            List<Long> duplicates = jdbcTemplate.queryForList(DUPLICATE_PENDING_IDS, Long.class);
+            if (duplicates.isEmpty()) {
+                throw e;
+            }
+            log.error("Índice {} não pôde ser criado: solicitações pendentes duplicadas {}.", INDEX_NAME, duplicates);
+            throw new IllegalStateException("Índice " + INDEX_NAME + " não pôde ser criado: há solicitações pendentes " +
+                    "duplicadas para o mesmo veículo (IDs " + duplicates + "). Aplique a migração do TableCreation.sql " +
+                    "que nega as duplicadas e suba a aplicação novamente.", e);
+        }
+    }
+
+    private void createIndex(String database) {
+        if ("H2".equals(database)) {
+            jdbcTemplate.execute("ALTER TABLE purchase_request ADD COLUMN IF NOT EXISTS pending_vehicle_id BIGINT " +
+                    "GENERATED ALWAYS AS (CASE WHEN status = 'PENDING' THEN vehicle_id END)");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_NAME + " ON purchase_request (pending_vehicle_id)");
+        } else {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_NAME +
+                    " ON purchase_request (vehicle_id) WHERE status = 'PENDING'");
+        }
+    }
+}
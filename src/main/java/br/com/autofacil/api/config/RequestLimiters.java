@@ -0,0 +1,89 @@
+package br.com.autofacil.api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Grupos de limite de concorrência da API, usados pelo {@link ConcurrencyLimitFilter}.
+ *
+ * <ul>
+ *     <li>{@code reads}: leituras baratas e muito frequentes ({@code GET /vehicles} e {@code GET /vehicles/{id}});</li>
+ *     <li>{@code writes}: escritas (POST, PUT, PATCH, DELETE), que autenticam com BCrypt e abrem transações.</li>
+ * </ul>
+ * Os grupos são independentes, para que um pico de escritas lentas não derrube a vitrine de veículos.
+ * As demais requisições (exportações, documentação, actuator) não passam pelo limitador. Importações
+ * ocupam uma vaga de escrita, mas sua latência, proporcional ao arquivo enviado, não ajusta o limite.
+ *
+ * Métricas, com a tag 'group': http.limiter.limit, http.limiter.in-flight e http.limiter.rejected.
+ */
+@Component
+public class RequestLimiters {
+    private static final Pattern VEHICLE_READ = Pattern.compile("^/vehicles(/\\d+)?/?$");
+    // Rotas de streaming (ex: /vehicles/import, /sales/export)
+    private static final Pattern STREAMING = Pattern.compile("^/[^/]+/(import|export)/?$");
+
+    private final boolean enabled;
+    private final Group reads;
+    private final Group writes;
+
+    public RequestLimiters(
+            MeterRegistry meterRegistry,
+            @Value("${autofacil.limiter.enabled:true}") boolean enabled,
+            @Value("${autofacil.limiter.reads.initial:100}") int readsInitial,
+            @Value("${autofacil.limiter.reads.min:10}") int readsMin,
+            @Value("${autofacil.limiter.reads.max:500}") int readsMax,
+            @Value("${autofacil.limiter.reads.latency-threshold:200ms}") Duration readsLatency,
+            @Value("${autofacil.limiter.writes.initial:20}") int writesInitial,
+            @Value("${autofacil.limiter.writes.min:4}") int writesMin,
+            @Value("${autofacil.limiter.writes.max:100}") int writesMax,
+            @Value("${autofacil.limiter.writes.latency-threshold:1s}") Duration writesLatency) {
+        this.enabled = enabled;
+        this.reads = new Group("reads", new AdaptiveConcurrencyLimiter(readsInitial, readsMin, readsMax, readsLatency), meterRegistry);
+        this.writes = new Group("writes", new AdaptiveConcurrencyLimiter(writesInitial, writesMin, writesMax, writesLatency), meterRegistry);
+    }
+
+    /**
+     * @return O grupo que limita a requisição, ou {@code null} se ela não é limitada.
+     */
+    Group groupOf(HttpServletRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method)) {
+            return VEHICLE_READ.matcher(path(request)).matches() ? reads : null;
+        }
+        if (HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return null;
+        }
+        return writes;
+    }
+
+    /**
+     * @return Se a latência da requisição deve ajustar o limite do grupo.
+     */
+    boolean samplesLatency(HttpServletRequest request) {
+        return !STREAMING.matcher(path(request)).matches();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    record Group(String name, AdaptiveConcurrencyLimiter limiter, Counter rejected) {
+
+        Group(String name, AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+            this(name, limiter, meterRegistry.counter("http.limiter.rejected", "group", name));
+            Gauge.builder("http.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).tag("group", name).register(meterRegistry);
+            Gauge.builder("http.limiter.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).tag("group", name).register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package br.com.autofacil.api.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Gerenciador de cache do cache de segundo nível do Hibernate (Caffeine via JCache), com as regiões de
+ * hibernate-cache.conf.
+ *
+ * O gerenciador é criado por um provedor próprio em vez do provedor global do JCache, que devolveria a mesma
+ * instância a todo contexto da JVM (ex.: os contextos dos testes): as regiões seriam compartilhadas entre
+ * bancos diferentes e o fechamento de um contexto fecharia o cache dos outros. O Hibernate fecha o
+ * gerenciador junto com a SessionFactory.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+    static final String REGIONS = "hibernate-cache.conf";
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheManager() {
+        return properties -> {
+            try {
+                ClassPathResource regions = new ClassPathResource(REGIONS);
+                properties.put(ConfigSettings.CACHE_MANAGER, new CaffeineCachingProvider()
+                        .getCacheManager(regions.getURI(), regions.getClassLoader()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Configuração das regiões de cache não encontrada: " + REGIONS, e);
+            }
+        };
+    }
+}
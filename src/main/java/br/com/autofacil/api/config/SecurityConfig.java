@@ -1,5 +1,6 @@
 package br.com.autofacil.api.config;
 
+import br.com.autofacil.api.services.TokenService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -8,6 +9,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -25,11 +27,13 @@ public class SecurityConfig {
      * Este método configura as regras de segurança HTTP da aplicação.
      *
      * @param http O objeto HttpSecurity para configurar a segurança.
+     * @param tokenService Serviço que valida os tokens Bearer emitidos em /auth/login.
+     * @param requestLimiters Limites de concorrência adaptativos por grupo de endpoints.
      * @return O filtro de segurança construído.
      * @throws Exception
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService, RequestLimiters requestLimiters) throws Exception {
         http
                 // Desabilita o CSRF (Cross-Site Request Forgery), pois não usamos sessões/cookies para autenticação.
                 .csrf(AbstractHttpConfigurer::disable)
@@ -37,6 +41,12 @@ public class SecurityConfig {
                 // Configura a gestão de sessão para ser STATELESS, pois usamos uma API REST.
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
+                // Valida tokens Bearer sem acessar o banco; sem token, as credenciais no corpo continuam valendo.
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+
+                // Recusa o excedente (503) antes de qualquer trabalho de autenticação.
+                .addFilterBefore(new ConcurrencyLimitFilter(requestLimiters), TokenAuthenticationFilter.class)
+
                 // Configura as regras de autorização para as requisições HTTP.
                 .authorizeHttpRequests(authorize -> authorize
                                 // Permite o acesso a TODOS os endpoints ("/**") sem autenticação.
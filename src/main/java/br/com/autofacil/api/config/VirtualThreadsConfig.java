@@ -0,0 +1,70 @@
+package br.com.autofacil.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Complementos do modo de threads virtuais (spring.threads.virtual.enabled=true), que vem desligado.
+ *
+ * Nesse modo o Tomcat atende cada requisição em uma thread virtual e deixa de limitar a concorrência a
+ * 200 threads; os limites passam a ficar nos recursos de fato escassos: o banco, protegido aqui pelo
+ * {@link BulkheadDataSource} com tantas permissões quanto conexões no pool, e a CPU do BCrypt,
+ * limitada pelo PasswordHasher (ativo nos dois modos).
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor databaseBulkhead(@Value("${autofacil.bulkhead.database.max-wait:500ms}") Duration maxWait) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, poolSize(dataSource), maxWait);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // O pool pode já estar embrulhado por outro DataSource (ex: ConnectionHoldTimeDataSource)
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                // O Hikari só resolve o tamanho padrão (10) ao iniciar o pool; antes disso devolve -1
+                int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                return poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE;
+            }
+        } catch (SQLException e) {
+            // Sem acesso ao pool: usa o tamanho padrão
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    @Bean
+    MeterBinder databaseBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            BulkheadDataSource bulkhead;
+            try {
+                bulkhead = dataSource.unwrap(BulkheadDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("db.bulkhead.available", bulkhead, BulkheadDataSource::getAvailablePermits).register(registry);
+            Gauge.builder("db.bulkhead.waiting", bulkhead, BulkheadDataSource::getQueueLength).register(registry);
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.autofacil.api.controllers;
+
+import br.com.autofacil.api.dtos.CredentialsDTO;
+import br.com.autofacil.api.dtos.TokenResponseDTO;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.services.AuthenticationService;
+import br.com.autofacil.api.services.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+@Tag(name = "Autenticação", description = "Emissão de tokens de acesso")
+public class AuthController {
+
+    private final AuthenticationService authService;
+    private final TokenService tokenService;
+
+    @Operation(
+            summary = "Autenticar e obter um token de acesso",
+            description = "Verifica email e senha uma única vez e devolve um token assinado, a ser enviado em " +
+                    "'Authorization: Bearer <token>' nas operações que hoje exigem credenciais no corpo.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Autenticado com sucesso",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenResponseDTO.class))),
+                    @ApiResponse(responseCode = "401", description = "Email ou senha incorretos")
+            }
+    )
+    @PostMapping("/login")
+    public ResponseEntity<TokenResponseDTO> login(@RequestBody CredentialsDTO dto) {
+        User user = authService.authenticate(dto.email(), dto.password());
+        return ResponseEntity.ok(tokenService.issue(user));
+    }
+}
@@ -0,0 +1,65 @@
+package br.com.autofacil.api.controllers;
+
+import br.com.autofacil.api.dtos.vehicle.FavoriteCountDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.services.AuthenticationService;
+import br.com.autofacil.api.services.FavoriteService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/favorites")
+@RequiredArgsConstructor
+public class FavoriteController {
+
+    private final FavoriteService favoriteService;
+    private final AuthenticationService authService;
+
+    /**
+     * Marca um veículo como favorito do comprador autenticado por token. A gravação é feita em lote logo
+     * depois (ver FavoriteService), por isso a resposta é 202 Accepted.
+     */
+    @PutMapping("/{vehicleId}")
+    public ResponseEntity<Void> addFavorite(@PathVariable Long vehicleId) {
+        User buyer = authService.requireTokenUser(UserRole.BUYER);
+        favoriteService.addFavorite(buyer.getId(), vehicleId);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Desmarca um veículo como favorito do comprador autenticado por token (202 Accepted, como na marcação).
+     */
+    @DeleteMapping("/{vehicleId}")
+    public ResponseEntity<Void> removeFavorite(@PathVariable Long vehicleId) {
+        User buyer = authService.requireTokenUser(UserRole.BUYER);
+        favoriteService.removeFavorite(buyer.getId(), vehicleId);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Retorna uma página dos veículos favoritos do comprador autenticado por token.
+     */
+    @GetMapping
+    public ResponseEntity<Page<VehicleResponseDTO>> listFavorites(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        User buyer = authService.requireTokenUser(UserRole.BUYER);
+        return ResponseEntity.ok(favoriteService.listFavorites(buyer.getId(), page, size));
+    }
+
+    /**
+     * Retorna os veículos mais favoritados, com a quantidade de favoritos de cada um.
+     *
+     * @param limit Tamanho do ranking (1 a 100).
+     */
+    @GetMapping("/ranking")
+    public ResponseEntity<List<FavoriteCountDTO>> ranking(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(favoriteService.ranking(limit));
+    }
+}
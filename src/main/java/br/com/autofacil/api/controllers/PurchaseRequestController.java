@@ -2,16 +2,27 @@ package br.com.autofacil.api.controllers;
 
 import br.com.autofacil.api.dtos.purchaserequest.PurchaseRequestRequestDTO;
 import br.com.autofacil.api.dtos.purchaserequest.PurchaseRequestResponseDTO;
+import br.com.autofacil.api.dtos.BatchDTO;
 import br.com.autofacil.api.dtos.CredentialsDTO;
 import br.com.autofacil.api.models.User;
 import br.com.autofacil.api.models.UserRole;
 import br.com.autofacil.api.services.AuthenticationService;
+import br.com.autofacil.api.services.ConflictRetry;
+import br.com.autofacil.api.services.PurchaseRequestAdmission;
+import br.com.autofacil.api.services.ExportFormat;
+import br.com.autofacil.api.services.ExportService;
 import br.com.autofacil.api.services.PurchaseRequestService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +41,9 @@ public class PurchaseRequestController {
 
     private final PurchaseRequestService purchaseRequestService;
     private final AuthenticationService authService;
+    private final ExportService exportService;
+    private final ConflictRetry conflictRetry;
+    private final PurchaseRequestAdmission purchaseRequestAdmission;
 
     @Operation(
             summary = "Criar uma nova solicitação de compra",
@@ -37,7 +51,9 @@ public class PurchaseRequestController {
             responses = {
                     @ApiResponse(responseCode = "201", description = "Solicitação de compra criada com sucesso",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = PurchaseRequestResponseDTO.class))),
-                    @ApiResponse(responseCode = "400", description = "Requisição inválida (ex: veículo já vendido, solicitação pendente existente, comprador é o próprio vendedor)",
+                    @ApiResponse(responseCode = "400", description = "Requisição inválida (comprador é o próprio vendedor)",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+                    @ApiResponse(responseCode = "409", description = "Conflito (veículo já vendido ou com solicitação pendente)",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
                     @ApiResponse(responseCode = "401", description = "Não autorizado (credenciais do comprador inválidas)",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
@@ -59,7 +75,12 @@ public class PurchaseRequestController {
                 UserRole.BUYER
         );
 
-        PurchaseRequestResponseDTO response = purchaseRequestService.createPurchaseRequest(dto.vehicleId(), authenticatedBuyer);
+        // Veículo já com solicitação pendente (ou vendido): recusa sem entrar na fila do veículo. Só depois da
+        // autenticação, para não revelar o estado do veículo a quem não se identificou
+        purchaseRequestAdmission.rejectIfClosed(dto.vehicleId());
+
+        PurchaseRequestResponseDTO response = purchaseRequestAdmission.admit(dto.vehicleId(),
+                () -> purchaseRequestService.createPurchaseRequest(dto.vehicleId(), authenticatedBuyer));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -81,6 +102,55 @@ public class PurchaseRequestController {
         return ResponseEntity.ok(purchaseRequest);
     }
 
+    @Operation(
+            summary = "Obter várias solicitações de compra por ID",
+            description = "Retorna, em uma só chamada, as solicitações de compra dos IDs informados (até 500), na ordem " +
+                    "em que foram pedidos, e a lista dos IDs que não existem.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Busca realizada (mesmo que algum ID não exista)"),
+                    @ApiResponse(responseCode = "400", description = "Lista de IDs vazia ou longa demais",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+            }
+    )
+    @GetMapping("/batch")
+    public ResponseEntity<BatchDTO<PurchaseRequestResponseDTO>> getPurchaseRequestsByIds(
+            @Parameter(description = "IDs das solicitações de compra, separados por vírgula", example = "3,1,2")
+            @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(purchaseRequestService.getPurchaseRequestsByIds(ids));
+    }
+
+    @Operation(
+            summary = "Exportar solicitações de compra",
+            description = "Exporta as solicitações de compra recebidas pelo vendedor autenticado (token Bearer de um VENDOR) " +
+                    "em NDJSON ou CSV, em ordem de ID, escrevendo diretamente na resposta. " +
+                    "Filtro opcional por período da solicitação ('from' inclusivo, 'to' exclusivo).",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Exportação escrita na resposta"),
+                    @ApiResponse(responseCode = "400", description = "Formato inválido",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+                    @ApiResponse(responseCode = "401", description = "Sem token de acesso ou usuário não é VENDOR",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+            }
+    )
+    @GetMapping("/export")
+    public void exportPurchaseRequests(
+            @Parameter(description = "Formato da exportação: ndjson ou csv", example = "csv")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Início do período (inclusivo)", example = "2025-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Fim do período (exclusivo)", example = "2025-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        // As solicitações trazem dados dos compradores: cada vendedor exporta só as que recebeu
+        User authenticatedVendor = authService.requireTokenUser(UserRole.VENDOR);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, exportFormat.contentDisposition("solicitacoes-de-compra"));
+
+        exportService.exportPurchaseRequests(authenticatedVendor.getId(), from, to, exportFormat, response.getOutputStream());
+    }
+
     @Operation(
             summary = "Listar solicitações de compra feitas por um comprador (via POST)",
             description = "Retorna todas as solicitações de compra que um usuário BUYER fez. As credenciais são enviadas no corpo da requisição por segurança."
@@ -126,7 +196,7 @@ public class PurchaseRequestController {
             responses = {
                     @ApiResponse(responseCode = "200", description = "Solicitação aceita e venda registrada com sucesso",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = PurchaseRequestResponseDTO.class))),
-                    @ApiResponse(responseCode = "400", description = "Requisição inválida (ex: solicitação não pendente, veículo já vendido)",
+                    @ApiResponse(responseCode = "409", description = "Conflito (ex: solicitação não pendente, veículo já vendido)",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
                     @ApiResponse(responseCode = "401", description = "Não autorizado (credenciais do vendedor inválidas ou vendedor não é o proprietário da solicitação)",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
@@ -142,7 +212,9 @@ public class PurchaseRequestController {
                 UserRole.VENDOR
         );
 
-        PurchaseRequestResponseDTO response = purchaseRequestService.acceptPurchaseRequest(id, authenticatedVendor);
+        // Um aceite que perde a disputa pelo veículo é repetido; se ele já tiver sido vendido, a resposta é 409
+        PurchaseRequestResponseDTO response = conflictRetry.execute("purchase-request.accept",
+                () -> purchaseRequestService.acceptPurchaseRequest(id, authenticatedVendor));
         return ResponseEntity.ok(response);
     }
 
@@ -152,7 +224,7 @@ public class PurchaseRequestController {
             responses = {
                     @ApiResponse(responseCode = "200", description = "Solicitação negada com sucesso",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = PurchaseRequestResponseDTO.class))),
-                    @ApiResponse(responseCode = "400", description = "Requisição inválida (ex: solicitação não pendente)",
+                    @ApiResponse(responseCode = "409", description = "Conflito (ex: solicitação não pendente)",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
                     @ApiResponse(responseCode = "401", description = "Não autorizado (credenciais do vendedor inválidas ou vendedor não é o proprietário da solicitação)",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
@@ -176,7 +248,8 @@ public class PurchaseRequestController {
                 UserRole.VENDOR
         );
 
-        PurchaseRequestResponseDTO response = purchaseRequestService.denyPurchaseRequest(id, authenticatedVendor);
+        PurchaseRequestResponseDTO response = conflictRetry.execute("purchase-request.deny",
+                () -> purchaseRequestService.denyPurchaseRequest(id, authenticatedVendor));
         return ResponseEntity.ok(response);
     }
 
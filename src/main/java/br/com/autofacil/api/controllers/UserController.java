@@ -1,9 +1,13 @@
 package br.com.autofacil.api.controllers;
 
+import br.com.autofacil.api.dtos.BatchDTO;
+import br.com.autofacil.api.dtos.user.UserFilterDTO;
 import br.com.autofacil.api.dtos.user.UserRequestDTO;
 import br.com.autofacil.api.dtos.user.UserResponseDTO;
 import br.com.autofacil.api.dtos.user.UserUpdateDTO;
 import br.com.autofacil.api.services.UserService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,8 +28,20 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<List<UserResponseDTO>> findAll() {
-        return ResponseEntity.ok(userService.findAll());
+    public ResponseEntity<Page<UserResponseDTO>> list(
+            UserFilterDTO filter,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction
+    ) {
+        return ResponseEntity.ok(userService.listUsers(filter, page, size, sortBy, direction));
+    }
+
+    // Vários usuários por ID em uma só chamada (ex: /users/batch?ids=3,1,2)
+    @GetMapping("/batch")
+    public ResponseEntity<BatchDTO<UserResponseDTO>> findByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.findByIds(ids));
     }
 
     @GetMapping("/{id}")
@@ -1,21 +1,43 @@
 package br.com.autofacil.api.controllers;
 
+import br.com.autofacil.api.dtos.BatchDTO;
+import br.com.autofacil.api.dtos.CursorPageDTO;
+import br.com.autofacil.api.dtos.SlicePageDTO;
 import br.com.autofacil.api.dtos.vehicle.VehicleCreationRequestDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleFacetsDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleFilterDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleImportReportDTO;
 import br.com.autofacil.api.dtos.vehicle.VehicleRequestDTO;
 import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
 import br.com.autofacil.api.models.User;
 import br.com.autofacil.api.models.UserRole;
-import br.com.autofacil.api.models.Vehicle;
 import br.com.autofacil.api.services.AuthenticationService;
+import br.com.autofacil.api.services.CountMode;
+import br.com.autofacil.api.services.ExportFormat;
+import br.com.autofacil.api.services.ExportService;
+import br.com.autofacil.api.services.VehicleDetailCache;
+import br.com.autofacil.api.services.VehicleFields;
+import br.com.autofacil.api.services.VehicleImportService;
 import br.com.autofacil.api.services.VehicleService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -24,6 +46,12 @@ import java.util.Optional;
 public class VehicleController {
     private final VehicleService vehicleService;
     private final AuthenticationService authService;
+    private final ExportService exportService;
+    private final VehicleImportService importService;
+    private final VehicleDetailCache detailCache;
+
+    // Clientes podem guardar a resposta, mas revalidam (If-None-Match) a cada uso
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
 
     // CREATE
     @PostMapping
@@ -40,38 +68,170 @@ public class VehicleController {
         return  ResponseEntity.ok(created);
     }
 
+    // IMPORT - cadastro em massa a partir de um corpo CSV ou NDJSON; exige token de vendedor
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<VehicleImportReportDTO> importVehicles(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body
+    ) throws IOException {
+        User authenticatedVendor = authService.requireTokenUser(UserRole.VENDOR);
+        return ResponseEntity.ok(importService.importVehicles(body, contentType, authenticatedVendor));
+    }
+
     // READ ALL
     @GetMapping
     public ResponseEntity<Page<VehicleResponseDTO>> list(
-            @RequestParam Optional<String> brand,
-            @RequestParam Optional<String> model,
-            @RequestParam Optional<Integer> year,
+            VehicleFilterDTO filter,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request
+    ) {
+        // O ETag vem da versão do catálogo, lida antes da consulta; sem mudanças desde a última visita, 304 sem consultar nada
+        String etag = "\"vehicles-" + vehicleService.listingVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+        Page<VehicleResponseDTO> vehicles = vehicleService.listVehicles(filter, pageable);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(vehicles);
+    }
+
+    // READ ALL com recorte de campos - só as colunas pedidas (ex: fields=id,brand,model,year,price)
+    @GetMapping(params = {"fields", "!after", "!count"})
+    public ResponseEntity<Page<Map<String, Object>>> listFields(
+            VehicleFilterDTO filter,
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request
+    ) {
+        VehicleFields vehicleFields = VehicleFields.of(fields);
+        String etag = "\"vehicles-" + vehicleService.listingVersion() + "-" + fieldsTag(vehicleFields) + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(vehicleService.listVehicleFields(filter, pageable, vehicleFields));
+    }
+
+    // READ ALL em fatias - página + "há próxima", sem COUNT(*); total opcional com count=none|exact|approximate
+    @GetMapping(params = {"count", "!after"})
+    public ResponseEntity<SlicePageDTO<VehicleResponseDTO>> listSlice(
+            VehicleFilterDTO filter,
+            @RequestParam String count,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        CountMode countMode = CountMode.of(count);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+        return ResponseEntity.ok(vehicleService.listVehicleSlice(filter, pageable, countMode));
+    }
+
+    // READ ALL com facetas - página de veículos + contagens por marca, tipo, cor, ano e preço
+    @GetMapping("/facets")
+    public ResponseEntity<VehicleFacetsDTO> listWithFacets(
+            VehicleFilterDTO filter,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
-        Page<VehicleResponseDTO> vehicles = vehicleService.listVehicles(brand, model, year, pageable);
-        return ResponseEntity.ok(vehicles);
+        return ResponseEntity.ok(vehicleService.listVehiclesWithFacets(filter, pageable));
+    }
+
+    // EXPORT - todos os veículos (sem fotos) em NDJSON ou CSV, escritos diretamente na resposta
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long vendorId,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, exportFormat.contentDisposition("veiculos"));
+
+        exportService.exportVehicles(vendorId, exportFormat, response.getOutputStream());
+    }
+
+    // READ ALL - paginação por cursor (keyset), sem OFFSET e sem contagem total.
+    // Ativada pela presença do parâmetro 'after'; a primeira página usa 'after' vazio.
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDTO<VehicleResponseDTO>> listByCursor(
+            VehicleFilterDTO filter,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(vehicleService.listVehiclesAfter(filter, after, size));
+    }
+
+    // SEARCH - busca textual por marca/modelo, ordenada por relevância
+    @GetMapping("/search")
+    public ResponseEntity<Page<VehicleResponseDTO>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(vehicleService.searchVehicles(q, page, size));
+    }
+
+    // READ em lote - vários veículos por ID em uma só chamada (ex: /vehicles/batch?ids=3,1,2)
+    @GetMapping("/batch")
+    public ResponseEntity<BatchDTO<VehicleResponseDTO>> findByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(vehicleService.findByIds(ids));
     }
 
     // READ by ID
     @GetMapping("/{id}")
-    public ResponseEntity<VehicleResponseDTO> getById(@PathVariable Long id) {
-        Vehicle found = vehicleService.findById(id);
-
-        return ResponseEntity.ok(new VehicleResponseDTO(
-                found.getId(),
-                found.getBrand(),
-                found.getModel(),
-                found.getYear(),
-                found.getColor(),
-                found.getPrice(),
-                found.getVehicleType(),
-                found.isSold(),
-                found.getPhotoUrls(),
-                found.getVendor().getId(),
-                found.getVendor().getName()
-        ));
+    public ResponseEntity<byte[]> getById(@PathVariable Long id, WebRequest request) {
+        // Só a versão do veículo é lida para validar o If-None-Match e o cache; fotos e vendedor ficam de fora
+        Optional<Long> version = vehicleService.findVersion(id);
+        Optional<String> revalidated = version.flatMap(current -> requestedVehicleEtag(request, id, current));
+        if (revalidated.isPresent() && request.checkNotModified(revalidated.get())) {
+            return null;
+        }
+
+        VehicleDetailCache.CachedVehicle detail = version
+                .flatMap(current -> detailCache.get(id, current))
+                .orElseGet(() -> {
+                    VehicleService.VersionedVehicle loaded = vehicleService.getVersionedVehicle(id);
+                    return detailCache.put(loaded.version(), loaded.vehicle());
+                });
+
+        // JSON já serializado (e comprimido, se o cliente aceitar) vai direto para o corpo
+        boolean gzip = detail.gzipped() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(vehicleEtag(id, detail.version(), gzip))
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? detail.gzipped() : detail.json());
+    }
+
+    // READ by ID com recorte de campos; o ETag sai da versão lida na mesma consulta dos campos
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getFieldsById(@PathVariable Long id, @RequestParam String fields, WebRequest request) {
+        VehicleFields vehicleFields = VehicleFields.of(fields);
+        VehicleService.VersionedFields loaded = vehicleService.getVehicleFields(id, vehicleFields);
+
+        String etag = "\"vehicle-" + id + "-" + loaded.version() + "-" + fieldsTag(vehicleFields) + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(loaded.vehicle());
     }
 
     // UPDATE
@@ -96,4 +256,79 @@ public class VehicleController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Se o Accept-Encoding aceita gzip (RFC 9110, seção 12.5.3): "gzip" (ou "x-gzip") com peso maior que zero
+     * ou, sem menção a gzip, "*" com peso maior que zero. "gzip;q=0" recusa explicitamente.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipWeight = null;
+        Double wildcardWeight = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipWeight = weightOf(parts);
+            } else if (name.equals("*")) {
+                wildcardWeight = weightOf(parts);
+            }
+        }
+        if (gzipWeight != null) {
+            return gzipWeight > 0;
+        }
+        return wildcardWeight != null && wildcardWeight > 0;
+    }
+
+    // Peso do parâmetro q (1 se ausente); um valor inválido conta como recusa
+    private static double weightOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Recortes diferentes são representações diferentes e não podem compartilhar o ETag
+    private static String fieldsTag(VehicleFields fields) {
+        return Integer.toHexString(fields.toString().hashCode());
+    }
+
+    // Corpos com e sem gzip são representações diferentes: o ETag forte não pode ser o mesmo
+    private static String vehicleEtag(Long id, long version, boolean gzip) {
+        return "\"vehicle-" + id + "-" + version + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    /**
+     * O ETag da versão atual que o cliente enviou no If-None-Match, em qualquer das duas codificações
+     * (o cache pode ter guardado o corpo comprimido ou não). Vazio se nenhum deles foi enviado.
+     */
+    private static Optional<String> requestedVehicleEtag(WebRequest request, Long id, long version) {
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return Optional.empty();
+        }
+        String identity = vehicleEtag(id, version, false);
+        String gzip = vehicleEtag(id, version, true);
+        for (String header : ifNoneMatch) {
+            for (String tag : header.split(",")) {
+                // Comparação fraca, como a do If-None-Match (RFC 9110, seção 13.1.2)
+                String candidate = tag.trim().startsWith("W/") ? tag.trim().substring(2) : tag.trim();
+                if (candidate.equals(identity) || candidate.equals(gzip)) {
+                    return Optional.of(candidate);
+                }
+                if (candidate.equals("*")) {
+                    return Optional.of(identity);
+                }
+            }
+        }
+        return Optional.empty();
+    }
 }
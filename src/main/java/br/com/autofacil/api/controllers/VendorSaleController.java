@@ -1,17 +1,28 @@
 package br.com.autofacil.api.controllers;
 
+import br.com.autofacil.api.dtos.vendorsale.VendorSaleFilterDTO;
 import br.com.autofacil.api.dtos.vendorsale.VendorSaleRequestDTO;
 import br.com.autofacil.api.dtos.vendorsale.VendorSaleResponseDTO;
 import br.com.autofacil.api.models.User;
 import br.com.autofacil.api.models.UserRole;
 import br.com.autofacil.api.services.AuthenticationService;
+import br.com.autofacil.api.services.ConflictRetry;
+import br.com.autofacil.api.services.ExportFormat;
+import br.com.autofacil.api.services.ExportService;
 import br.com.autofacil.api.services.VendorSaleService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/sales")
@@ -20,6 +31,8 @@ public class VendorSaleController {
 
     private final VendorSaleService vendorSaleService;
     private final AuthenticationService authService;
+    private final ExportService exportService;
+    private final ConflictRetry conflictRetry;
 
     /**
      * Registra uma nova venda de veículo.
@@ -38,19 +51,50 @@ public class VendorSaleController {
                 UserRole.VENDOR
         );
 
-        VendorSaleResponseDTO response = vendorSaleService.registerSale(dto, authenticatedVendor);
+        // Vendas concorrentes do mesmo veículo: a perdedora é repetida e, com o veículo já vendido, recebe 409
+        VendorSaleResponseDTO response = conflictRetry.execute("sale.register",
+                () -> vendorSaleService.registerSale(dto, authenticatedVendor));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     /**
-     * Retorna uma lista de todas as vendas.
+     * Retorna uma página de vendas, com filtros opcionais.
      *
-     * @return ResponseEntity com a lista de DTOs de vendas e status 200 OK.
+     * @param filter Filtros por vendedor, comprador, período (from/to) e faixa de preço (minPrice/maxPrice).
+     * @param sortBy A propriedade de ordenação: id, saleDate ou price.
+     * @return ResponseEntity com a página de DTOs de vendas e status 200 OK.
      */
     @GetMapping
-    public ResponseEntity<List<VendorSaleResponseDTO>> getAllSales() {
-        List<VendorSaleResponseDTO> sales = vendorSaleService.getAllSales();
-        return ResponseEntity.ok(sales);
+    public ResponseEntity<Page<VendorSaleResponseDTO>> listSales(
+            VendorSaleFilterDTO filter,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "saleDate") String sortBy,
+            @RequestParam(defaultValue = "DESC") Sort.Direction direction) {
+        return ResponseEntity.ok(vendorSaleService.listSales(filter, page, size, sortBy, direction));
+    }
+
+    /**
+     * Exporta as vendas em NDJSON ou CSV, escrevendo diretamente na resposta (sem carregar todas em memória).
+     *
+     * @param format "ndjson" (padrão) ou "csv".
+     * @param vendorId Filtra pelo vendedor (opcional).
+     * @param from Início do período, inclusivo (opcional).
+     * @param to Fim do período, exclusivo (opcional).
+     */
+    @GetMapping("/export")
+    public void exportSales(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long vendorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, exportFormat.contentDisposition("vendas"));
+
+        exportService.exportSales(vendorId, from, to, exportFormat, response.getOutputStream());
     }
 
     /**
@@ -0,0 +1,17 @@
+package br.com.autofacil.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Resultado de uma busca por vários IDs: os itens encontrados, na ordem em que os IDs foram pedidos, e os
+ * IDs que não existem.
+ */
+public record BatchDTO<T>(
+        @Schema(description = "Itens encontrados, na ordem dos IDs pedidos (IDs repetidos aparecem uma vez)")
+        List<T> items,
+
+        @Schema(description = "IDs pedidos que não foram encontrados, na ordem em que foram pedidos", example = "[42]")
+        List<Long> missingIds
+) {}
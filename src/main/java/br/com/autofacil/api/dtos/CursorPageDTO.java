@@ -0,0 +1,19 @@
+package br.com.autofacil.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Página de resultados navegada por cursor (keyset), sem contagem total.
+ */
+public record CursorPageDTO<T>(
+        @Schema(description = "Itens da página")
+        List<T> content,
+
+        @Schema(description = "Quantidade máxima de itens solicitada", example = "10")
+        int size,
+
+        @Schema(description = "Cursor opaco para a próxima página (parâmetro 'after'); nulo na última página", nullable = true)
+        String nextCursor
+) {}
@@ -0,0 +1,29 @@
+package br.com.autofacil.api.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Página de resultados que informa apenas se há uma próxima página; o total é opcional e, quando presente,
+ * indica se é exato ou uma estimativa.
+ */
+public record SlicePageDTO<T>(
+        @Schema(description = "Itens da página")
+        List<T> content,
+
+        @Schema(description = "Número da página (começando em 0)", example = "0")
+        int page,
+
+        @Schema(description = "Quantidade máxima de itens solicitada", example = "10")
+        int size,
+
+        @Schema(description = "Se existe uma próxima página")
+        boolean hasNext,
+
+        @Schema(description = "Total de itens que atendem aos filtros; nulo com count=none", nullable = true, example = "1532")
+        Long totalElements,
+
+        @Schema(description = "Se o total é exato (true) ou uma estimativa das estatísticas do banco (false); nulo sem total", nullable = true)
+        Boolean totalExact
+) {}
@@ -0,0 +1,23 @@
+package br.com.autofacil.api.dtos;
+
+import br.com.autofacil.api.models.UserRole;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+public record TokenResponseDTO(
+        @Schema(description = "Token de acesso, enviado no cabeçalho Authorization: Bearer <token>")
+        String token,
+
+        @Schema(description = "Tipo do token", example = "Bearer")
+        String tokenType,
+
+        @Schema(description = "Instante de expiração do token", example = "2025-06-11T16:30:00Z")
+        Instant expiresAt,
+
+        @Schema(description = "ID do usuário autenticado", example = "1")
+        Long userId,
+
+        @Schema(description = "Papel do usuário autenticado", example = "VENDOR")
+        UserRole role
+) {}
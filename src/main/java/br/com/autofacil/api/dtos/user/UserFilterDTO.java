@@ -0,0 +1,19 @@
+package br.com.autofacil.api.dtos.user;
+
+import br.com.autofacil.api.models.UserRole;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Filtros opcionais da listagem de usuários, recebidos como parâmetros de consulta.
+ */
+public record UserFilterDTO(
+        @Schema(description = "Filtra pelo papel do usuário", example = "VENDOR")
+        UserRole role,
+
+        @Schema(description = "Início do nome (sem diferenciar maiúsculas)", example = "car")
+        String namePrefix
+) {
+    public boolean hasNamePrefix() {
+        return namePrefix != null && !namePrefix.isBlank();
+    }
+}
@@ -0,0 +1,6 @@
+package br.com.autofacil.api.dtos.vehicle;
+
+/**
+ * Quantidade de veículos com um determinado valor de faceta (ex: marca "Toyota": 12).
+ */
+public record FacetCountDTO(String value, long count) {}
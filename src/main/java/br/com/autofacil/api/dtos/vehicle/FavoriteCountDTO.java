@@ -0,0 +1,6 @@
+package br.com.autofacil.api.dtos.vehicle;
+
+/**
+ * Quantidade de usuários que favoritaram um veículo (ex: veículo 12: 48 favoritos).
+ */
+public record FavoriteCountDTO(Long vehicleId, long favorites) {}
@@ -0,0 +1,9 @@
+package br.com.autofacil.api.dtos.vehicle;
+
+/**
+ * Quantidade de veículos em uma faixa de valores [from, to).
+ *
+ * @param from Início da faixa (inclusivo).
+ * @param to Fim da faixa (exclusivo), ou {@code null} para a última faixa, aberta.
+ */
+public record RangeCountDTO<T>(T from, T to, long count) {}
@@ -0,0 +1,20 @@
+package br.com.autofacil.api.dtos.vehicle;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha da exportação de veículos. Igual ao VehicleResponseDTO, mas sem as fotos, para que cada
+ * linha venha de uma única linha da consulta.
+ */
+public record VehicleExportDTO(
+        Long id,
+        String brand,
+        String model,
+        int year,
+        String color,
+        BigDecimal price,
+        String vehicleType,
+        boolean sold,
+        Long vendorId,
+        String vendorName
+) {}
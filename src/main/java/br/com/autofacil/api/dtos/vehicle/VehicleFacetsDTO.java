@@ -0,0 +1,19 @@
+package br.com.autofacil.api.dtos.vehicle;
+
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado da listagem com facetas: a página de veículos e, para o mesmo conjunto de filtros,
+ * a contagem de veículos por marca, tipo, cor, faixa de ano e faixa de preço.
+ */
+public record VehicleFacetsDTO(
+        Page<VehicleResponseDTO> hits,
+        List<FacetCountDTO> brands,
+        List<FacetCountDTO> vehicleTypes,
+        List<FacetCountDTO> colors,
+        List<RangeCountDTO<Integer>> years,
+        List<RangeCountDTO<BigDecimal>> prices
+) {}
@@ -0,0 +1,54 @@
+package br.com.autofacil.api.dtos.vehicle;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Filtros opcionais da listagem de veículos, recebidos como parâmetros de consulta.
+ */
+public record VehicleFilterDTO(
+        @Schema(description = "Filtra pela marca (sem diferenciar maiúsculas e acentos)", example = "citroen")
+        String brand,
+
+        @Schema(description = "Filtra pelo modelo (sem diferenciar maiúsculas e acentos)", example = "c3")
+        String model,
+
+        @Schema(description = "Filtra pelo ano", example = "2023")
+        Integer year,
+
+        @Schema(description = "Filtra por veículos vendidos (true) ou disponíveis (false)", example = "false")
+        Boolean sold,
+
+        @Schema(description = "Preço mínimo (inclusivo)", example = "30000")
+        BigDecimal minPrice,
+
+        @Schema(description = "Preço máximo (inclusivo)", example = "80000")
+        BigDecimal maxPrice,
+
+        @Schema(description = "Filtra pelo tipo do veículo (sem diferenciar maiúsculas)", example = "SUV")
+        String vehicleType,
+
+        @Schema(description = "Filtra pela cor (sem diferenciar maiúsculas)", example = "Preto")
+        String color
+) {
+    public static VehicleFilterDTO none() {
+        return new VehicleFilterDTO(null, null, null, null, null, null, null, null);
+    }
+
+    public boolean hasBrand() {
+        return brand != null && !brand.isBlank();
+    }
+
+    public boolean hasModel() {
+        return model != null && !model.isBlank();
+    }
+
+    public boolean hasVehicleType() {
+        return vehicleType != null && !vehicleType.isBlank();
+    }
+
+    public boolean hasColor() {
+        return color != null && !color.isBlank();
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.autofacil.api.dtos.vehicle;
+
+import java.util.List;
+
+/**
+ * Relatório da importação de veículos, com o resultado de cada linha em ordem.
+ */
+public record VehicleImportReportDTO(
+        int received,
+        int imported,
+        int failed,
+        List<VehicleImportResultDTO> rows
+) {}
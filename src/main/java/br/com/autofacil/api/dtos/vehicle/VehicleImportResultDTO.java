@@ -0,0 +1,10 @@
+package br.com.autofacil.api.dtos.vehicle;
+
+/**
+ * Resultado de uma linha da importação.
+ *
+ * @param line O número da linha no corpo enviado (a partir de 1, contando o cabeçalho do CSV).
+ * @param vehicleId O ID do veículo criado, ou {@code null} se a linha foi rejeitada.
+ * @param error O motivo da rejeição, ou {@code null} se o veículo foi criado.
+ */
+public record VehicleImportResultDTO(int line, Long vehicleId, String error) {}
@@ -0,0 +1,18 @@
+package br.com.autofacil.api.dtos.vehicle;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Uma linha da importação de veículos em NDJSON. No CSV, as mesmas colunas vêm no cabeçalho e as
+ * fotos são separadas por '|'.
+ */
+public record VehicleImportRowDTO(
+        String brand,
+        String model,
+        Integer year,
+        String color,
+        BigDecimal price,
+        String vehicleType,
+        List<String> photoUrls
+) {}
@@ -20,6 +20,14 @@ public record VehicleResponseDTO (
     String vendorName
 ) {
     public static VehicleResponseDTO fromEntity(Vehicle vehicle, User user) {
+        return fromEntity(vehicle, user, vehicle.getPhotoUrls());
+    }
+
+    /**
+     * Variante que recebe as fotos já carregadas, para listagens que buscam as fotos
+     * de todos os veículos da página em uma única consulta.
+     */
+    public static VehicleResponseDTO fromEntity(Vehicle vehicle, User user, List<String> photoUrls) {
         return new VehicleResponseDTO(
                 vehicle.getId(),
                 vehicle.getBrand(),
@@ -29,7 +37,8 @@ public record VehicleResponseDTO (
                 vehicle.getPrice(),
                 vehicle.getVehicleType(),
                 vehicle.isSold(),
-                vehicle.getPhotoUrls(),
+                // Cópia imutável: o DTO não deve depender da coleção (possivelmente lazy) da entidade
+                photoUrls == null ? List.of() : List.copyOf(photoUrls),
                 user.getId(),
                 user.getName()
         );
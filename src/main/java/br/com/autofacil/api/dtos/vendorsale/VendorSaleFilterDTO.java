@@ -0,0 +1,31 @@
+package br.com.autofacil.api.dtos.vendorsale;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionais da listagem de vendas, recebidos como parâmetros de consulta.
+ */
+public record VendorSaleFilterDTO(
+        @Schema(description = "Filtra pelo vendedor", example = "1")
+        Long vendorId,
+
+        @Schema(description = "Filtra pelo comprador", example = "2")
+        Long buyerId,
+
+        @Schema(description = "Início do período da venda (inclusivo)", example = "2025-01-01T00:00:00")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime from,
+
+        @Schema(description = "Fim do período da venda (exclusivo)", example = "2025-02-01T00:00:00")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime to,
+
+        @Schema(description = "Preço mínimo (inclusivo)", example = "30000")
+        Double minPrice,
+
+        @Schema(description = "Preço máximo (inclusivo)", example = "80000")
+        Double maxPrice
+) {}
@@ -0,0 +1,12 @@
+package br.com.autofacil.api.events;
+
+/**
+ * Publicado quando uma solicitação de compra deixa de estar pendente sem que o veículo seja vendido
+ * (negada ou excluída), ou seja, quando o veículo volta a aceitar novas solicitações.
+ *
+ * A aceitação não publica este evento: ela vende o veículo e já gera um {@link VehicleChangedEvent}.
+ *
+ * @param vehicleId O ID do veículo da solicitação.
+ */
+public record PurchaseRequestClosedEvent(Long vehicleId) {
+}
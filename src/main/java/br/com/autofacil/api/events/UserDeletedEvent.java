@@ -0,0 +1,13 @@
+package br.com.autofacil.api.events;
+
+import java.util.List;
+
+/**
+ * Publicado na exclusão de um usuário. Os ouvintes devem usar {@code @TransactionalEventListener},
+ * para só reagir depois do commit (como em {@link VehicleChangedEvent}).
+ *
+ * @param userId O ID do usuário excluído.
+ * @param favoriteVehicleIds Os veículos que ele tinha como favoritos, removidos na mesma transação.
+ */
+public record UserDeletedEvent(Long userId, List<Long> favoriteVehicleIds) {
+}
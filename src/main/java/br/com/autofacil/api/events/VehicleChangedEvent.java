@@ -0,0 +1,27 @@
+package br.com.autofacil.api.events;
+
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+
+/**
+ * Publicado sempre que um veículo é criado, alterado, vendido ou excluído.
+ *
+ * Os ouvintes (índices e caches em memória) devem usar {@code @TransactionalEventListener},
+ * para reagir somente após o commit.
+ *
+ * @param vehicleId O ID do veículo alterado.
+ * @param vehicle O estado do veículo após a alteração, ou {@code null} se ele foi excluído.
+ */
+public record VehicleChangedEvent(Long vehicleId, VehicleResponseDTO vehicle) {
+
+    public static VehicleChangedEvent saved(VehicleResponseDTO vehicle) {
+        return new VehicleChangedEvent(vehicle.id(), vehicle);
+    }
+
+    public static VehicleChangedEvent deleted(Long vehicleId) {
+        return new VehicleChangedEvent(vehicleId, null);
+    }
+
+    public boolean isDeleted() {
+        return vehicle == null;
+    }
+}
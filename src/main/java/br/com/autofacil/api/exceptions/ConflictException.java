@@ -0,0 +1,18 @@
+package br.com.autofacil.api.exceptions;
+
+/**
+ * A operação conflita com o estado atual do recurso (ex: o veículo foi vendido por outra requisição
+ * concorrente). Respondida com 409 Conflict.
+ *
+ * Estende IllegalStateException para que os chamadores que já tratam o estado inválido continuem funcionando.
+ */
+public class ConflictException extends IllegalStateException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,7 +1,11 @@
 package br.com.autofacil.api.exceptions;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -12,4 +16,47 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleNotFound(EntityNotFoundException e) {
         return ResponseEntity.status(404).body(e.getMessage());
     }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<String> handleConflict(ConflictException e) {
+        return ResponseEntity.status(409).body(e.getMessage());
+    }
+
+    // Conflito de @Version em operações sem retentativa (ex: duas edições simultâneas do mesmo veículo)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLock(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(409).body("O recurso foi alterado por outra requisição. Recarregue e tente novamente.");
+    }
+
+    // Estado inválido para a operação (ex: solicitação que não está mais pendente)
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> handleInvalidState(IllegalStateException e) {
+        return ResponseEntity.status(400).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.status(400).body(e.getMessage());
+    }
+
+    @ExceptionHandler(SecurityException.class)
+    public ResponseEntity<String> handleUnauthorized(SecurityException e) {
+        return ResponseEntity.status(401).body(e.getMessage());
+    }
+
+    @ExceptionHandler(TooManyAttemptsException.class)
+    public ResponseEntity<String> handleTooManyAttempts(TooManyAttemptsException e) {
+        return ResponseEntity.status(429).header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds())).body(e.getMessage());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<String> handleOverloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+    }
+
+    // Nenhuma conexão obtida a tempo (bulkhead do banco, pool esgotado ou banco fora do ar)
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<String> handleDatabaseUnavailable(RuntimeException e) {
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body("Banco de dados temporariamente indisponível. Tente novamente.");
+    }
 }
\ No newline at end of file
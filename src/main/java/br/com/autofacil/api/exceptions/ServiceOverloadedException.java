@@ -0,0 +1,16 @@
+package br.com.autofacil.api.exceptions;
+
+/**
+ * Um recurso limitado do servidor (conexões com o banco, threads de hashing de senha) está saturado e a
+ * requisição foi recusada em vez de esperar indefinidamente. Respondida com 503 Service Unavailable e Retry-After.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+
+    public ServiceOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
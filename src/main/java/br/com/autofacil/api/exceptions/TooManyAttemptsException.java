@@ -0,0 +1,18 @@
+package br.com.autofacil.api.exceptions;
+
+/**
+ * Tentativas de login demais para a mesma conta ou o mesmo endereço de origem.
+ * Respondida com 429 Too Many Requests e Retry-After.
+ */
+public class TooManyAttemptsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyAttemptsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -2,6 +2,7 @@ package br.com.autofacil.api.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -45,6 +46,11 @@ public class PurchaseRequest {
     @Column(name = "status", nullable = false)
     private PurchaseRequestStatus status;
 
+    // Bloqueio otimista: impede que a mesma solicitação seja aceita/negada por duas requisições concorrentes
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
     // Data e hora em que a solicitação foi respondida (aceita ou negada)
     @Column(name = "response_date")
     private LocalDateTime responseDate;
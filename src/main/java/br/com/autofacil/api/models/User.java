@@ -2,17 +2,24 @@ package br.com.autofacil.api.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_role", columnList = "role"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +27,8 @@ public class User {
 
     private String name;
 
+    // Chave natural mutável (o usuário pode trocar de e-mail): o login resolve e-mail -> id pelo cache de natural id
+    @NaturalId(mutable = true)
     @Column(unique = true,  nullable = false)
     private String email;
 
@@ -34,13 +43,15 @@ public class User {
     @Enumerated(EnumType.STRING)
     private UserRole role;
 
+    // Set: a tabela de junção tem chave primária (user_id, vehicle_id). Gravada e lida por SQL direto
+    // (UserRepoCustom), nunca por esta coleção
     @ManyToMany
     @JoinTable(
             name = "favorites",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "vehicle_id")
     )
-    private List<Vehicle> favorites;
+    private Set<Vehicle> favorites;
 
     @OneToMany(mappedBy = "vendor")
     private List<VendorSale> vehiclesAsVendor;
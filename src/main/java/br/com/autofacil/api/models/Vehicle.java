@@ -3,20 +3,30 @@ package br.com.autofacil.api.models;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
-@Table(name = "vehicles")
+@Table(name = "vehicles", indexes = {
+        @Index(name = "idx_vehicles_brand", columnList = "brand"),
+        @Index(name = "idx_vehicles_model", columnList = "model")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicles")
 public class Vehicle {
+    // Sequência com alocação em blocos de 50: o Hibernate reserva os IDs sem um round-trip por linha,
+    // o que permite agrupar os INSERTs em lote (com IDENTITY o lote é desativado)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicles_id_seq")
+    @SequenceGenerator(name = "vehicles_id_seq", sequenceName = "vehicles_id_seq", allocationSize = 50)
     private Long id;
 
     private String model;
@@ -26,6 +36,11 @@ public class Vehicle {
     private BigDecimal price;
     private boolean sold;
 
+    // Bloqueio otimista: vendas e aceites concorrentes do mesmo veículo não passam os dois pela checagem de 'sold'
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
     @Column(name = "vehicle_type")
     private String vehicleType;
 
@@ -35,6 +50,7 @@ public class Vehicle {
     private User vendor;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicle-photos")
     @CollectionTable(name = "vehicle_photos", joinColumns = @JoinColumn(name = "vehicle_id"))
     @Column(name = "photo_url")
     private List<String> photoUrls;
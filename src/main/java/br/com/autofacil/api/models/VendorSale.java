@@ -12,7 +12,12 @@ import java.util.Optional;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "vendor_sale")
+// Um veículo só pode ser vendido uma vez (mesma restrição do TableCreation.sql)
+@Table(name = "vendor_sale", uniqueConstraints = @UniqueConstraint(name = "unique_vehicle_sale", columnNames = "vehicle_id"), indexes = {
+        @Index(name = "idx_vendor_sale_vendor_date", columnList = "vendor_id, sale_date"),
+        @Index(name = "idx_vendor_sale_buyer_date", columnList = "buyer_id, sale_date"),
+        @Index(name = "idx_vendor_sale_date", columnList = "sale_date")
+})
 public class VendorSale {
 
     @Id
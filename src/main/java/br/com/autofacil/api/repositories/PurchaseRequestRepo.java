@@ -1,17 +1,50 @@
 package br.com.autofacil.api.repositories;
 
+import br.com.autofacil.api.dtos.purchaserequest.PurchaseRequestResponseDTO;
 import br.com.autofacil.api.models.PurchaseRequest;
 import br.com.autofacil.api.models.PurchaseRequestStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PurchaseRequestRepo extends JpaRepository<PurchaseRequest, Long> {
+public interface PurchaseRequestRepo extends JpaRepository<PurchaseRequest, Long>, PurchaseRequestRepoCustom {
     List<PurchaseRequest> findByVendorId(Long vendorId);
     List<PurchaseRequest> findByBuyerId(Long buyerId);
     Optional<PurchaseRequest> findByVehicleIdAndStatus(Long vehicleId, PurchaseRequestStatus status);
     List<PurchaseRequest> findByVehicleId(Long vendorId);
+
+    // Busca em lote (ver BatchLookup): projeção direta no DTO, sem instanciar entidades
+    @Query("select new br.com.autofacil.api.dtos.purchaserequest.PurchaseRequestResponseDTO(" +
+            "p.id, p.vehicle.id, p.buyer.id, p.vendor.id, p.requestDate, p.status, p.responseDate) " +
+            "from PurchaseRequest p where p.id in :ids")
+    List<PurchaseRequestResponseDTO> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Exportação: projeção direta no DTO, lida por cursor no servidor; ver VendorSaleRepo.streamForExport
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new br.com.autofacil.api.dtos.purchaserequest.PurchaseRequestResponseDTO(" +
+            "p.id, p.vehicle.id, p.buyer.id, p.vendor.id, p.requestDate, p.status, p.responseDate) " +
+            "from PurchaseRequest p " +
+            "where (:vendorId is null or p.vendor.id = :vendorId) " +
+            "and (:from is null or p.requestDate >= :from) " +
+            "and (:to is null or p.requestDate < :to) " +
+            "order by p.id")
+    Stream<PurchaseRequestResponseDTO> streamForExport(
+            @Param("vendorId") Long vendorId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
 }
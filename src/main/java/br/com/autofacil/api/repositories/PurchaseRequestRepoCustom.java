@@ -0,0 +1,22 @@
+package br.com.autofacil.api.repositories;
+
+import br.com.autofacil.api.dtos.purchaserequest.PurchaseRequestResponseDTO;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Operações de PurchaseRequestRepo escritas diretamente em SQL.
+ */
+public interface PurchaseRequestRepoCustom {
+
+    /**
+     * Insere uma solicitação PENDING para o veículo em uma única instrução, que só grava a linha se o veículo
+     * existir, não estiver vendido, não pertencer ao comprador e ainda não tiver outra solicitação pendente.
+     * Esta última condição é garantida pelo índice único parcial unique_pending_request_for_vehicle
+     * (ON CONFLICT DO NOTHING), e não por uma consulta prévia, por isso vale também entre requisições simultâneas.
+     *
+     * @return A solicitação criada, ou vazio se alguma das condições não foi atendida.
+     */
+    Optional<PurchaseRequestResponseDTO> insertPending(Long vehicleId, Long buyerId, LocalDateTime requestDate);
+}
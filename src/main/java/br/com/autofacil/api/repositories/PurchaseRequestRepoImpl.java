@@ -0,0 +1,59 @@
+package br.com.autofacil.api.repositories;
+
+import br.com.autofacil.api.dtos.purchaserequest.PurchaseRequestResponseDTO;
+import br.com.autofacil.api.models.PurchaseRequestStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+class PurchaseRequestRepoImpl implements PurchaseRequestRepoCustom {
+    private static final String INSERT_PENDING = """
+            INSERT INTO purchase_request (vehicle_id, buyer_id, vendor_id, request_date, status, version)
+            SELECT v.id, ?, v.vendor_id, ?, ?, 0
+            FROM vehicles v
+            WHERE v.id = ? AND v.sold = FALSE AND v.vendor_id <> ?
+            ON CONFLICT DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    PurchaseRequestRepoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<PurchaseRequestResponseDTO> insertPending(Long vehicleId, Long buyerId, LocalDateTime requestDate) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        int inserted = jdbcTemplate.update(connection -> {
+            // O vendor_id vem do próprio veículo; é devolvido junto com o id para montar a resposta sem nova consulta
+            PreparedStatement statement = connection.prepareStatement(INSERT_PENDING, new String[]{"id", "vendor_id"});
+            statement.setLong(1, buyerId);
+            statement.setTimestamp(2, Timestamp.valueOf(requestDate));
+            statement.setString(3, PurchaseRequestStatus.PENDING.name());
+            statement.setLong(4, vehicleId);
+            statement.setLong(5, buyerId);
+            return statement;
+        }, keys);
+
+        if (inserted == 0) {
+            return Optional.empty();
+        }
+
+        Map<String, Object> row = keys.getKeys();
+        return Optional.of(new PurchaseRequestResponseDTO(
+                ((Number) row.get("id")).longValue(),
+                vehicleId,
+                buyerId,
+                ((Number) row.get("vendor_id")).longValue(),
+                requestDate,
+                PurchaseRequestStatus.PENDING,
+                null
+        ));
+    }
+}
@@ -1,10 +1,18 @@
 package br.com.autofacil.api.repositories;
 
+import br.com.autofacil.api.dtos.user.UserResponseDTO;
 import br.com.autofacil.api.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
-public interface UserRepo extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+public interface UserRepo extends JpaRepository<User, Long>, UserRepoCustom {
+
+    // Busca em lote (ver BatchLookup): projeção direta no DTO, sem instanciar entidades
+    @Query("select new br.com.autofacil.api.dtos.user.UserResponseDTO(u.id, u.name, u.email, u.role) " +
+            "from User u where u.id in :ids")
+    List<UserResponseDTO> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
 }
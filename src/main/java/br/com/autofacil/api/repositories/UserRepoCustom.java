@@ -0,0 +1,70 @@
+package br.com.autofacil.api.repositories;
+
+import br.com.autofacil.api.dtos.user.UserFilterDTO;
+import br.com.autofacil.api.dtos.user.UserResponseDTO;
+import br.com.autofacil.api.models.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Consultas de UserRepo que não cabem em métodos derivados ou em @Query.
+ */
+public interface UserRepoCustom {
+
+    /**
+     * Página de usuários filtrados, projetada diretamente no DTO (sem ler senha, CPF e demais colunas).
+     * A contagem total só é executada quando não pode ser deduzida da própria página.
+     */
+    Page<UserResponseDTO> findPage(UserFilterDTO filter, Pageable pageable);
+
+    /**
+     * Usuário pelo e-mail, resolvido como natural id: o e-mail -> id e a própria entidade vêm do cache de
+     * segundo nível quando presentes, sem ida ao banco.
+     */
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Grava favoritos em lote direto na tabela de junção, sem carregar a coleção User.favorites. Cada linha só é
+     * gravada se o usuário e o veículo existirem e o favorito ainda não existir (ON CONFLICT DO NOTHING).
+     *
+     * @return Linhas gravadas por favorito, na ordem recebida (0 ou 1).
+     */
+    int[] insertFavorites(List<Favorite> favorites);
+
+    /**
+     * @return Linhas removidas por favorito, na ordem recebida (0 ou 1).
+     */
+    int[] deleteFavorites(List<Favorite> favorites);
+
+    /**
+     * Remove os favoritos de um veículo, antes da exclusão dele. O esquema gerado pelo Hibernate não tem
+     * ON DELETE CASCADE na tabela de junção (só o TableCreation.sql tem).
+     *
+     * @return Quantidade de favoritos removidos.
+     */
+    int deleteFavoritesOfVehicle(Long vehicleId);
+
+    /**
+     * Remove os favoritos de um usuário, antes da exclusão dele (ver deleteFavoritesOfVehicle).
+     * Deve ser chamado dentro de uma transação: os IDs são lidos e removidos em duas instruções.
+     *
+     * @return IDs dos veículos que deixaram de ser favoritos do usuário.
+     */
+    List<Long> deleteFavoritesOfUser(Long userId);
+
+    /**
+     * IDs dos veículos favoritos do usuário, do maior para o menor ID.
+     */
+    Page<Long> findFavoriteVehicleIds(Long userId, Pageable pageable);
+
+    /**
+     * Quantidade de favoritos de cada veículo favoritado ao menos uma vez.
+     */
+    Map<Long, Long> countFavoritesByVehicle();
+
+    record Favorite(Long userId, Long vehicleId) {}
+}
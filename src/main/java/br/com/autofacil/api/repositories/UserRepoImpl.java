@@ -0,0 +1,159 @@
+package br.com.autofacil.api.repositories;
+
+import br.com.autofacil.api.dtos.user.UserFilterDTO;
+import br.com.autofacil.api.dtos.user.UserResponseDTO;
+import br.com.autofacil.api.models.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+class UserRepoImpl implements UserRepoCustom {
+    private static final char LIKE_ESCAPE = '\\';
+
+    // INSERT ... SELECT (e não VALUES): sem linha quando o usuário ou o veículo já não existem, e fora da
+    // reescrita de lotes do driver (reWriteBatchedInserts), que esconderia a contagem de linhas por favorito
+    private static final String INSERT_FAVORITE = """
+            INSERT INTO favorites (user_id, vehicle_id)
+            SELECT u.id, v.id
+            FROM users u, vehicles v
+            WHERE u.id = ? AND v.id = ?
+            ON CONFLICT DO NOTHING
+            """;
+    private static final String DELETE_FAVORITE = "DELETE FROM favorites WHERE user_id = ? AND vehicle_id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserRepoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+
+    @Override
+    public Page<UserResponseDTO> findPage(UserFilterDTO filter, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<UserResponseDTO> query = builder.createQuery(UserResponseDTO.class);
+        Root<User> user = query.from(User.class);
+        query.select(builder.construct(
+                        UserResponseDTO.class,
+                        user.get("id"),
+                        user.get("name"),
+                        user.get("email"),
+                        user.get("role")
+                ))
+                .where(predicates(filter, user, builder))
+                .orderBy(toOrders(pageable.getSort(), user, builder));
+
+        List<UserResponseDTO> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(filter));
+    }
+
+    @Override
+    public int[] insertFavorites(List<Favorite> favorites) {
+        return jdbcTemplate.batchUpdate(INSERT_FAVORITE, arguments(favorites));
+    }
+
+    @Override
+    public int[] deleteFavorites(List<Favorite> favorites) {
+        return jdbcTemplate.batchUpdate(DELETE_FAVORITE, arguments(favorites));
+    }
+
+    @Override
+    public int deleteFavoritesOfVehicle(Long vehicleId) {
+        return jdbcTemplate.update("DELETE FROM favorites WHERE vehicle_id = ?", vehicleId);
+    }
+
+    @Override
+    public List<Long> deleteFavoritesOfUser(Long userId) {
+        // O H2 dos testes não tem DELETE ... RETURNING
+        List<Long> vehicleIds = jdbcTemplate.queryForList(
+                "SELECT vehicle_id FROM favorites WHERE user_id = ? FOR UPDATE", Long.class, userId);
+        jdbcTemplate.update("DELETE FROM favorites WHERE user_id = ?", userId);
+        return vehicleIds;
+    }
+
+    @Override
+    public Page<Long> findFavoriteVehicleIds(Long userId, Pageable pageable) {
+        List<Long> content = jdbcTemplate.queryForList(
+                "SELECT vehicle_id FROM favorites WHERE user_id = ? ORDER BY vehicle_id DESC LIMIT ? OFFSET ?",
+                Long.class, userId, pageable.getPageSize(), pageable.getOffset());
+        return PageableExecutionUtils.getPage(content, pageable, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM favorites WHERE user_id = ?", Long.class, userId));
+    }
+
+    @Override
+    public Map<Long, Long> countFavoritesByVehicle() {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT vehicle_id, COUNT(*) FROM favorites GROUP BY vehicle_id",
+                (RowCallbackHandler) row -> counts.put(row.getLong(1), row.getLong(2)));
+        return counts;
+    }
+
+    private static List<Object[]> arguments(List<Favorite> favorites) {
+        return favorites.stream()
+                .map(favorite -> new Object[]{favorite.userId(), favorite.vehicleId()})
+                .toList();
+    }
+
+    private long count(UserFilterDTO filter) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<User> user = query.from(User.class);
+        query.select(builder.count(user)).where(predicates(filter, user, builder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] predicates(UserFilterDTO filter, Root<User> user, CriteriaBuilder builder) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.role() != null) {
+            predicates.add(builder.equal(user.get("role"), filter.role()));
+        }
+        if (filter.hasNamePrefix()) {
+            // lower(name) LIKE 'prefixo%' usa o índice idx_users_name_lower (text_pattern_ops)
+            String pattern = escapeLike(filter.namePrefix().trim().toLowerCase(Locale.ROOT)) + "%";
+            predicates.add(builder.like(builder.lower(user.get("name")), pattern, LIKE_ESCAPE));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    // '%' e '_' digitados pelo usuário são literais, não curingas
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
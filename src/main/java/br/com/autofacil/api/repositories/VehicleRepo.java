@@ -1,8 +1,97 @@
 package br.com.autofacil.api.repositories;
 
+import br.com.autofacil.api.dtos.vehicle.VehicleExportDTO;
 import br.com.autofacil.api.models.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface VehicleRepo extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle> {
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface VehicleRepo extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle>, VehicleRepoCustom {
+
+    // Carrega o vendedor na mesma consulta da página, evitando um SELECT por veículo
+    @Override
+    @EntityGraph(attributePaths = "vendor")
+    Page<Vehicle> findAll(Specification<Vehicle> spec, Pageable pageable);
+
+    // Busca em lote (ver BatchLookup): o vendedor vem na mesma consulta; as fotos, de findPhotoUrlsByVehicleIds
+    @EntityGraph(attributePaths = "vendor")
+    List<Vehicle> findByIdIn(Collection<Long> ids);
+
+    // Veículos de um vendedor, com ele na mesma consulta (ver VehicleService.republishVendorVehicles)
+    @EntityGraph(attributePaths = "vendor")
+    List<Vehicle> findByVendorId(Long vendorId);
+
+    // Versão (@Version) do veículo, para validar ETags sem carregar o veículo, as fotos e o vendedor
+    @Query("select v.version from Vehicle v where v.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Incrementa a versão dos veículos de um vendedor, cujo nome faz parte da representação de cada veículo
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Vehicle v set v.version = v.version + 1 where v.vendor.id = :vendorId")
+    int incrementVersionByVendorId(@Param("vendorId") Long vendorId);
+
+    // Fotos de vários veículos em uma única consulta (em vez de uma inicialização de coleção por veículo)
+    @Query("select v.id as vehicleId, p as url from Vehicle v join v.photoUrls p where v.id in :ids")
+    List<PhotoUrl> findPhotoUrlsByVehicleIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct v.brand from Vehicle v where v.brand is not null")
+    List<String> findDistinctBrands();
+
+    @Query("select distinct v.model from Vehicle v where v.model is not null")
+    List<String> findDistinctModels();
+
+    // Carga completa do VehicleCatalog: apenas as colunas necessárias, sem instanciar entidades
+    @Query("select v.id as id, v.brand as brand, v.model as model, v.year as vehicleYear, v.color as color, " +
+            "v.price as price, v.vehicleType as vehicleType, v.vendor.id as vendorId, v.vendor.name as vendorName " +
+            "from Vehicle v where v.sold = false order by v.id")
+    List<CatalogRow> findUnsoldForCatalog();
+
+    @Query("select v.id as vehicleId, p as url from Vehicle v join v.photoUrls p where v.sold = false")
+    List<PhotoUrl> findUnsoldPhotoUrls();
+
+    // Exportação: projeção direta no DTO, lida por cursor no servidor; ver VendorSaleRepo.streamForExport
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new br.com.autofacil.api.dtos.vehicle.VehicleExportDTO(" +
+            "v.id, v.brand, v.model, v.year, v.color, v.price, v.vehicleType, v.sold, v.vendor.id, v.vendor.name) " +
+            "from Vehicle v " +
+            "where (:vendorId is null or v.vendor.id = :vendorId) " +
+            "order by v.id")
+    Stream<VehicleExportDTO> streamForExport(@Param("vendorId") Long vendorId);
+
+    interface CatalogRow {
+        Long getId();
+        String getBrand();
+        String getModel();
+        Integer getVehicleYear();
+        String getColor();
+        BigDecimal getPrice();
+        String getVehicleType();
+        Long getVendorId();
+        String getVendorName();
+    }
+
+    interface PhotoUrl {
+        Long getVehicleId();
+        String getUrl();
+    }
 }
@@ -0,0 +1,58 @@
+package br.com.autofacil.api.repositories;
+
+import br.com.autofacil.api.models.Vehicle;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Consultas de VehicleRepo que não cabem em métodos derivados ou em @Query.
+ */
+public interface VehicleRepoCustom {
+
+    /**
+     * Conta os veículos que atendem à Specification, agrupados por marca, tipo, cor, ano e faixa de preço,
+     * em uma única consulta. Cada linha devolvida é uma combinação distinta desses valores.
+     *
+     * @param priceLimits Limites superiores (exclusivos) das faixas de preço, em ordem crescente.
+     */
+    List<FacetRow> countFacets(Specification<Vehicle> spec, List<BigDecimal> priceLimits);
+
+    /**
+     * Página de veículos (com o vendedor) que atendem à Specification, sem COUNT: busca um veículo a mais
+     * que o tamanho da página só para saber se há uma próxima.
+     */
+    Slice<Vehicle> findSlice(Specification<Vehicle> spec, Pageable pageable);
+
+    /**
+     * Página de veículos lendo apenas as colunas pedidas, cada linha como um mapa coluna -> valor. As colunas
+     * são atributos de Vehicle (id, brand, model, year, color, price, vehicleType, sold, version), mais vendorId
+     * (a chave estrangeira, sem junção) e vendorName (o único que faz a junção com o vendedor).
+     *
+     * @throws IllegalArgumentException Se uma coluna não for conhecida.
+     */
+    Page<Map<String, Object>> findColumns(Specification<Vehicle> spec, Pageable pageable, List<String> columns);
+
+    /**
+     * Um veículo lendo apenas as colunas pedidas; ver {@link #findColumns}.
+     */
+    Optional<Map<String, Object>> findColumnsById(Long id, List<String> columns);
+
+    /**
+     * Quantidade aproximada de veículos segundo as estatísticas do planejador do PostgreSQL (pg_class.reltuples),
+     * atualizadas pelo ANALYZE/autovacuum. Vazia em outros bancos ou se a tabela ainda não foi analisada.
+     */
+    OptionalLong estimateCount();
+
+    /**
+     * @param priceBucket Índice da faixa de preço (0 para preços abaixo do primeiro limite), ou -1 para veículos sem preço.
+     */
+    record FacetRow(String brand, String vehicleType, String color, int year, int priceBucket, long count) {}
+}
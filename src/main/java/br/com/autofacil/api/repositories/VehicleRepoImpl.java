@@ -0,0 +1,190 @@
+package br.com.autofacil.api.repositories;
+
+import br.com.autofacil.api.models.Vehicle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+class VehicleRepoImpl implements VehicleRepoCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FacetRow> countFacets(Specification<Vehicle> spec, List<BigDecimal> priceLimits) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Vehicle> root = query.from(Vehicle.class);
+
+        Path<String> brand = root.get("brand");
+        Path<String> vehicleType = root.get("vehicleType");
+        Path<String> color = root.get("color");
+        Path<Integer> year = root.get("year");
+        Expression<Integer> priceBucket = priceBucket(root.get("price"), priceLimits, builder);
+        Expression<Long> count = builder.count(root);
+
+        query.multiselect(brand, vehicleType, color, year, priceBucket, count)
+                .groupBy(brand, vehicleType, color, year, priceBucket);
+
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> new FacetRow(
+                        tuple.get(brand),
+                        tuple.get(vehicleType),
+                        tuple.get(color),
+                        tuple.get(year),
+                        tuple.get(priceBucket),
+                        tuple.get(count)
+                ))
+                .toList();
+    }
+
+    @Override
+    public Slice<Vehicle> findSlice(Specification<Vehicle> spec, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Vehicle> query = builder.createQuery(Vehicle.class);
+        Root<Vehicle> root = query.from(Vehicle.class);
+        root.fetch("vendor", JoinType.LEFT);
+
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(pageable.getSort(), root, builder));
+
+        List<Vehicle> vehicles = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = vehicles.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? vehicles.subList(0, pageable.getPageSize()) : vehicles, pageable, hasNext);
+    }
+
+    @Override
+    public Page<Map<String, Object>> findColumns(Specification<Vehicle> spec, Pageable pageable, List<String> columns) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Vehicle> root = query.from(Vehicle.class);
+        query.multiselect(selections(root, columns));
+
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(pageable.getSort(), root, builder));
+
+        List<Map<String, Object>> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList().stream()
+                .map(tuple -> toRow(tuple, columns))
+                .toList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> countMatching(spec));
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findColumnsById(Long id, List<String> columns) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Vehicle> root = query.from(Vehicle.class);
+        query.multiselect(selections(root, columns))
+                .where(builder.equal(root.get("id"), id));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .findFirst()
+                .map(tuple -> toRow(tuple, columns));
+    }
+
+    // Não pode se chamar count(spec): o Spring Data encaminharia JpaSpecificationExecutor.count para este fragmento
+    private long countMatching(Specification<Vehicle> spec) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Vehicle> root = query.from(Vehicle.class);
+        query.select(builder.count(root));
+
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static List<Selection<?>> selections(Root<Vehicle> root, List<String> columns) {
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            Selection<?> selection = switch (column) {
+                case "id", "brand", "model", "year", "color", "price", "vehicleType", "sold", "version" -> root.get(column);
+                // vendor.id é a própria chave estrangeira: o Hibernate não faz junção para lê-la
+                case "vendorId" -> root.get("vendor").get("id");
+                case "vendorName" -> root.join("vendor", JoinType.LEFT).get("name");
+                default -> throw new IllegalArgumentException("Coluna desconhecida: " + column);
+            };
+            selections.add(selection.alias(column));
+        }
+        return selections;
+    }
+
+    private static Map<String, Object> toRow(Tuple tuple, List<String> columns) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String column : columns) {
+            row.put(column, tuple.get(column));
+        }
+        return row;
+    }
+
+    @Override
+    public OptionalLong estimateCount() {
+        if (!(entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect)) {
+            return OptionalLong.empty();
+        }
+
+        Number estimate = (Number) entityManager
+                .createNativeQuery("select cast(reltuples as bigint) from pg_class where oid = to_regclass('vehicles')")
+                .getResultList().stream()
+                .findFirst()
+                .orElse(null);
+        // -1: tabela nunca analisada (PostgreSQL 14+)
+        return estimate == null || estimate.longValue() < 0 ? OptionalLong.empty() : OptionalLong.of(estimate.longValue());
+    }
+
+    // CASE WHEN price IS NULL THEN -1 WHEN price < limite0 THEN 0 WHEN price < limite1 THEN 1 ... ELSE n END
+    private static Expression<Integer> priceBucket(Path<BigDecimal> price, List<BigDecimal> limits, CriteriaBuilder builder) {
+        CriteriaBuilder.Case<Integer> bucket = builder.<Integer>selectCase().when(builder.isNull(price), -1);
+        for (int i = 0; i < limits.size(); i++) {
+            bucket = bucket.when(builder.lessThan(price, limits.get(i)), i);
+        }
+        return bucket.otherwise(limits.size());
+    }
+}
@@ -1,7 +1,35 @@
 package br.com.autofacil.api.repositories;
 
+import br.com.autofacil.api.dtos.vendorsale.VendorSaleResponseDTO;
 import br.com.autofacil.api.models.VendorSale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface VendorSaleRepo extends JpaRepository<VendorSale, Long> {
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface VendorSaleRepo extends JpaRepository<VendorSale, Long>, VendorSaleRepoCustom {
+
+    // Exportação: projeção direta no DTO (sem entidades no contexto de persistência), lida por cursor
+    // no servidor em lotes de 500 linhas. Deve ser consumida dentro de uma transação somente leitura.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new br.com.autofacil.api.dtos.vendorsale.VendorSaleResponseDTO(" +
+            "s.id, s.vehicle.id, s.buyer.id, s.vendor.id, s.price, s.saleDate) " +
+            "from VendorSale s " +
+            "where (:vendorId is null or s.vendor.id = :vendorId) " +
+            "and (:from is null or s.saleDate >= :from) " +
+            "and (:to is null or s.saleDate < :to) " +
+            "order by s.id")
+    Stream<VendorSaleResponseDTO> streamForExport(
+            @Param("vendorId") Long vendorId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
 }
@@ -0,0 +1,18 @@
+package br.com.autofacil.api.repositories;
+
+import br.com.autofacil.api.dtos.vendorsale.VendorSaleFilterDTO;
+import br.com.autofacil.api.dtos.vendorsale.VendorSaleResponseDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Consultas de VendorSaleRepo que não cabem em métodos derivados ou em @Query.
+ */
+public interface VendorSaleRepoCustom {
+
+    /**
+     * Página de vendas filtradas, projetada diretamente no DTO (lê apenas as colunas de vendor_sale).
+     * A contagem total só é executada quando não pode ser deduzida da própria página.
+     */
+    Page<VendorSaleResponseDTO> findPage(VendorSaleFilterDTO filter, Pageable pageable);
+}
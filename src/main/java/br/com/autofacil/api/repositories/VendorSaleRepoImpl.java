@@ -0,0 +1,82 @@
+package br.com.autofacil.api.repositories;
+
+import br.com.autofacil.api.dtos.vendorsale.VendorSaleFilterDTO;
+import br.com.autofacil.api.dtos.vendorsale.VendorSaleResponseDTO;
+import br.com.autofacil.api.models.VendorSale;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+class VendorSaleRepoImpl implements VendorSaleRepoCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<VendorSaleResponseDTO> findPage(VendorSaleFilterDTO filter, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<VendorSaleResponseDTO> query = builder.createQuery(VendorSaleResponseDTO.class);
+        Root<VendorSale> sale = query.from(VendorSale.class);
+        // As chaves estrangeiras são lidas da própria vendor_sale, sem join com users/vehicles
+        query.select(builder.construct(
+                        VendorSaleResponseDTO.class,
+                        sale.get("id"),
+                        sale.get("vehicle").get("id"),
+                        sale.get("buyer").get("id"),
+                        sale.get("vendor").get("id"),
+                        sale.get("price"),
+                        sale.get("saleDate")
+                ))
+                .where(predicates(filter, sale, builder))
+                .orderBy(toOrders(pageable.getSort(), sale, builder));
+
+        List<VendorSaleResponseDTO> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(filter));
+    }
+
+    private long count(VendorSaleFilterDTO filter) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<VendorSale> sale = query.from(VendorSale.class);
+        query.select(builder.count(sale)).where(predicates(filter, sale, builder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] predicates(VendorSaleFilterDTO filter, Root<VendorSale> sale, CriteriaBuilder builder) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.vendorId() != null) {
+            predicates.add(builder.equal(sale.get("vendor").get("id"), filter.vendorId()));
+        }
+        if (filter.buyerId() != null) {
+            predicates.add(builder.equal(sale.get("buyer").get("id"), filter.buyerId()));
+        }
+        if (filter.from() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(sale.get("saleDate"), filter.from()));
+        }
+        if (filter.to() != null) {
+            predicates.add(builder.lessThan(sale.get("saleDate"), filter.to()));
+        }
+        if (filter.minPrice() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(sale.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            predicates.add(builder.lessThanOrEqualTo(sale.get("price"), filter.maxPrice()));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+}
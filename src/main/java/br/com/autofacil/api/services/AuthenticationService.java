@@ -3,17 +3,23 @@ package br.com.autofacil.api.services;
 import br.com.autofacil.api.models.User;
 import br.com.autofacil.api.models.UserRole;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
     private final UserService userService;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final VerifiedCredentialCache credentialCache;
+    private final LoginThrottle loginThrottle;
 
     /**
      * Autentica um usuário com base no email e senha e verifica seu papel (ROLE).
+     * Se a requisição trouxer um token Bearer válido, ele é usado no lugar das credenciais.
      *
      * @param email O email do usuário.
      * @param password A senha do usuário.
@@ -22,20 +28,82 @@ public class AuthenticationService {
      * @throws SecurityException Se as credenciais estiverem incorretas ou o usuário não tiver o papel esperado.
      */
     public User authenticateAndVerifyRole(String email, String password, UserRole expectedRole) {
+        // Um token já validado pelo TokenAuthenticationFilter dispensa as credenciais do corpo
+        User user = currentTokenUser()
+                .orElseGet(() -> authenticate(email, password));
+
+        // Verifica se o usuário tem o papel esperado
+        if (user.getRole() != expectedRole) {
+            throw new SecurityException("Acesso negado: O usuário não tem a permissão necessária (" + expectedRole + ").");
+        }
+
+        return user;
+    }
+
+    /**
+     * Autentica um usuário com base no email e senha, sem verificar o papel.
+     *
+     * @param email O email do usuário.
+     * @param password A senha do usuário.
+     * @return O objeto User se as credenciais estiverem corretas.
+     * @throws SecurityException Se as credenciais estiverem incorretas.
+     * @throws br.com.autofacil.api.exceptions.TooManyAttemptsException Se houver tentativas demais para o email ou o endereço de origem.
+     */
+    public User authenticate(String email, String password) {
+        // Credenciais verificadas recentemente dispensam a consulta ao banco e o BCrypt
+        return credentialCache.get(email, password)
+                .orElseGet(() -> verifyCredentials(email, password));
+    }
+
+    /**
+     * Exige um token Bearer válido com o papel esperado, para endpoints cujo corpo não comporta
+     * credenciais (ex: importação em CSV).
+     *
+     * @throws SecurityException Se a requisição não tiver token ou o usuário não tiver o papel esperado.
+     */
+    public User requireTokenUser(UserRole expectedRole) {
+        User user = currentTokenUser()
+                .orElseThrow(() -> new SecurityException("Autenticação falhou: envie um token de acesso (Authorization: Bearer)."));
+
+        if (user.getRole() != expectedRole) {
+            throw new SecurityException("Acesso negado: O usuário não tem a permissão necessária (" + expectedRole + ").");
+        }
+        return user;
+    }
+
+    /**
+     * Usuário identificado pelo token da requisição atual. Contém apenas ID e papel,
+     * suficientes para autorização e para referenciar o usuário em associações.
+     */
+    private Optional<User> currentTokenUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof TokenService.Claims claims) {
+            return Optional.of(User.builder()
+                    .id(claims.userId())
+                    .role(claims.role())
+                    .build());
+        }
+        return Optional.empty();
+    }
+
+    private User verifyCredentials(String email, String password) {
+        if (email == null || password == null) {
+            throw new SecurityException("Autenticação falhou: Email ou senha incorretos.");
+        }
+
+        // Tentativas em excesso são recusadas antes da consulta e do BCrypt
+        loginThrottle.acquire(email);
+
         // Busca o usuário pelo email
         User user = userService.findByEmail(email)
                 .orElseThrow(() -> new SecurityException("Autenticação falhou: Email ou senha incorretos."));
 
         // Verifica a senha
-        if (!passwordEncoder.matches(password, user.getPasswordHash())) {
+        if (!passwordHasher.matches(password, user.getPasswordHash())) {
             throw new SecurityException("Autenticação falhou: Email ou senha incorretos.");
         }
 
-        // Verifica se o usuário tem o papel esperado
-        if (user.getRole() != expectedRole) {
-            throw new SecurityException("Acesso negado: O usuário não tem a permissão necessária (" + expectedRole + ").");
-        }
-
+        credentialCache.put(email, password, user);
         return user;
     }
 }
@@ -0,0 +1,68 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.BatchDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Busca de vários registros por ID com uma consulta IN por bloco de IDs, em vez de uma consulta por ID.
+ *
+ * Os blocos limitam o tamanho de cada IN (e, com hibernate.query.in_clause_parameter_padding, a quantidade
+ * de planos distintos no cache de consultas do Hibernate e do banco).
+ */
+final class BatchLookup {
+    static final int MAX_IDS = 500;
+    static final int CHUNK_SIZE = 250;
+
+    private BatchLookup() {
+    }
+
+    /**
+     * @param ids Os IDs pedidos; repetições são ignoradas.
+     * @param load Consulta de um bloco de IDs, em qualquer ordem; IDs inexistentes simplesmente não voltam.
+     * @param idOf ID de um item devolvido pela consulta.
+     * @throws IllegalArgumentException Se a lista estiver vazia, tiver IDs nulos ou mais de MAX_IDS IDs distintos.
+     */
+    static <T> BatchDTO<T> resolve(List<Long> ids, Function<List<Long>, List<T>> load, Function<T, Long> idOf) {
+        List<Long> distinct = distinct(ids);
+
+        Map<Long, T> found = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + CHUNK_SIZE, distinct.size()));
+            for (T item : load.apply(chunk)) {
+                found.put(idOf.apply(item), item);
+            }
+        }
+
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinct) {
+            T item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchDTO<>(items, missingIds);
+    }
+
+    private static List<Long> distinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um ID em 'ids'.");
+        }
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("A lista 'ids' não pode ter IDs vazios.");
+        }
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinct.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Informe no máximo " + MAX_IDS + " IDs por busca.");
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.exceptions.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Reexecuta operações transacionais que perderam uma disputa de bloqueio otimista (@Version).
+ *
+ * Cada tentativa deve abrir sua própria transação (a ação é chamada de fora do serviço @Transactional),
+ * para reler o estado atual. Entre as tentativas há uma espera aleatória ("full jitter") de até
+ * base * 2^tentativa, que evita que as requisições em disputa colidam de novo no mesmo instante.
+ * Esgotadas as tentativas, o conflito vira uma {@link ConflictException} (409).
+ *
+ * Métricas: concurrency.conflicts (cada conflito detectado), concurrency.retries (cada nova tentativa)
+ * e concurrency.conflicts.exhausted (operações que desistiram), todas com a tag 'operation'.
+ */
+@Slf4j
+@Component
+public class ConflictRetry {
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+
+    public ConflictRetry(
+            MeterRegistry meterRegistry,
+            @Value("${autofacil.concurrency.max-attempts:3}") int maxAttempts,
+            @Value("${autofacil.concurrency.base-backoff:20ms}") Duration baseBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("autofacil.concurrency.max-attempts deve ser ao menos 1.");
+        }
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+    }
+
+    /**
+     * @param operation Nome da operação, usado nas métricas (ex: "sale.register").
+     * @param action A operação; deve iniciar e concluir sua própria transação.
+     * @throws ConflictException Se todas as tentativas terminarem em conflito.
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                counter("concurrency.conflicts", operation).increment();
+
+                if (attempt >= maxAttempts) {
+                    counter("concurrency.conflicts.exhausted", operation).increment();
+                    throw new ConflictException("O recurso foi alterado por outra requisição. Tente novamente.", e);
+                }
+
+                log.debug("Conflito de concorrência em {} (tentativa {} de {}).", operation, attempt, maxAttempts);
+                counter("concurrency.retries", operation).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long maxMillis = baseBackoff.toMillis() << Math.min(attempt, 10);
+        if (maxMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Operação interrompida durante a espera por uma nova tentativa.", e);
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return meterRegistry.counter(name, "operation", operation);
+    }
+}
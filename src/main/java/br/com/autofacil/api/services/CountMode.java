@@ -0,0 +1,26 @@
+package br.com.autofacil.api.services;
+
+import java.util.Locale;
+
+/**
+ * Como a listagem em fatias (parâmetro 'count') obtém o total de itens.
+ */
+public enum CountMode {
+    // Sem total: só a página e se há próxima
+    NONE,
+    // Total exato, guardado por filtro no VehicleCountCache
+    EXACT,
+    // Estimativa das estatísticas do banco quando não há filtros; com filtros, o mesmo que EXACT
+    APPROXIMATE;
+
+    /**
+     * @throws IllegalArgumentException Se o modo não for "none", "exact" nem "approximate".
+     */
+    public static CountMode of(String mode) {
+        try {
+            return valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Modo de contagem inválido: " + mode + ". Use none, exact ou approximate.");
+        }
+    }
+}
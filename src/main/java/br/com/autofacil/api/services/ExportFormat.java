@@ -0,0 +1,43 @@
+package br.com.autofacil.api.services;
+
+import java.util.Locale;
+
+/**
+ * Formatos aceitos pelos endpoints de exportação.
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    // Valor do cabeçalho Content-Disposition, para o navegador salvar a exportação como arquivo
+    public String contentDisposition(String baseName) {
+        return "attachment; filename=\"" + baseName + "." + extension + "\"";
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o formato não for "ndjson" nem "csv".
+     */
+    public static ExportFormat of(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de exportação inválido: " + format + ". Use ndjson ou csv.");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.purchaserequest.PurchaseRequestResponseDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleExportDTO;
+import br.com.autofacil.api.dtos.vendorsale.VendorSaleResponseDTO;
+import br.com.autofacil.api.repositories.PurchaseRequestRepo;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import br.com.autofacil.api.repositories.VendorSaleRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Exportação completa de vendas, veículos e solicitações de compra.
+ *
+ * As linhas são lidas por cursor no servidor (fetch size limitado, transação somente leitura,
+ * projeções em DTO fora do contexto de persistência) e escritas diretamente no stream da resposta,
+ * de modo que o consumo de memória não depende do tamanho da tabela.
+ */
+@Service
+public class ExportService {
+    private final VendorSaleRepo vendorSaleRepo;
+    private final VehicleRepo vehicleRepo;
+    private final PurchaseRequestRepo purchaseRequestRepo;
+
+    private final RecordExportWriter<VendorSaleResponseDTO> salesWriter;
+    private final RecordExportWriter<VehicleExportDTO> vehiclesWriter;
+    private final RecordExportWriter<PurchaseRequestResponseDTO> purchaseRequestsWriter;
+
+    public ExportService(VendorSaleRepo vendorSaleRepo, VehicleRepo vehicleRepo, PurchaseRequestRepo purchaseRequestRepo,
+                         ObjectMapper objectMapper) {
+        this.vendorSaleRepo = vendorSaleRepo;
+        this.vehicleRepo = vehicleRepo;
+        this.purchaseRequestRepo = purchaseRequestRepo;
+        this.salesWriter = new RecordExportWriter<>(VendorSaleResponseDTO.class, objectMapper);
+        this.vehiclesWriter = new RecordExportWriter<>(VehicleExportDTO.class, objectMapper);
+        this.purchaseRequestsWriter = new RecordExportWriter<>(PurchaseRequestResponseDTO.class, objectMapper);
+    }
+
+    /**
+     * Exporta as vendas, em ordem de ID.
+     *
+     * @param vendorId Filtra pelo vendedor (opcional).
+     * @param from Início do período da venda, inclusivo (opcional).
+     * @param to Fim do período da venda, exclusivo (opcional).
+     * @return A quantidade de vendas exportadas.
+     */
+    @Transactional(readOnly = true)
+    public long exportSales(Long vendorId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream output) throws IOException {
+        try (Stream<VendorSaleResponseDTO> rows = vendorSaleRepo.streamForExport(vendorId, from, to)) {
+            return salesWriter.write(rows, format, output);
+        }
+    }
+
+    /**
+     * Exporta os veículos (sem as fotos), em ordem de ID.
+     *
+     * @param vendorId Filtra pelo vendedor (opcional).
+     * @return A quantidade de veículos exportados.
+     */
+    @Transactional(readOnly = true)
+    public long exportVehicles(Long vendorId, ExportFormat format, OutputStream output) throws IOException {
+        try (Stream<VehicleExportDTO> rows = vehicleRepo.streamForExport(vendorId)) {
+            return vehiclesWriter.write(rows, format, output);
+        }
+    }
+
+    /**
+     * Exporta as solicitações de compra, em ordem de ID.
+     *
+     * @param vendorId Filtra pelo vendedor (opcional).
+     * @param from Início do período da solicitação, inclusivo (opcional).
+     * @param to Fim do período da solicitação, exclusivo (opcional).
+     * @return A quantidade de solicitações exportadas.
+     */
+    @Transactional(readOnly = true)
+    public long exportPurchaseRequests(Long vendorId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream output) throws IOException {
+        try (Stream<PurchaseRequestResponseDTO> rows = purchaseRequestRepo.streamForExport(vendorId, from, to)) {
+            return purchaseRequestsWriter.write(rows, format, output);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.FavoriteCountDTO;
+import br.com.autofacil.api.events.UserDeletedEvent;
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Quantidade de favoritos por veículo, em memória, para servir o ranking dos mais favoritados sem um
+ * GROUP BY sobre a tabela favorites a cada consulta.
+ *
+ * Os contadores são LongAdder em um mapa concorrente: leituras e incrementos não bloqueiam. São ajustados pelo
+ * FavoriteService com as linhas de fato gravadas ou removidas em cada lote, e recarregados do banco
+ * periodicamente, o que corrige também os favoritos gravados por outras instâncias.
+ */
+@Component
+public class FavoriteCounts {
+    private static final Comparator<FavoriteCountDTO> RANKING = Comparator
+            .comparingLong(FavoriteCountDTO::favorites)
+            .thenComparing(FavoriteCountDTO::vehicleId, Comparator.reverseOrder());
+
+    private volatile ConcurrentMap<Long, LongAdder> counts = new ConcurrentHashMap<>();
+
+    void add(Long vehicleId, long delta) {
+        counts.computeIfAbsent(vehicleId, id -> new LongAdder()).add(delta);
+    }
+
+    public long get(Long vehicleId) {
+        LongAdder count = counts.get(vehicleId);
+        return count != null ? Math.max(count.sum(), 0) : 0;
+    }
+
+    /**
+     * Os veículos mais favoritados, do maior para o menor número de favoritos (empates: menor ID primeiro).
+     * Percorre os contadores uma vez, guardando apenas os 'limit' maiores.
+     */
+    public List<FavoriteCountDTO> top(int limit) {
+        PriorityQueue<FavoriteCountDTO> top = new PriorityQueue<>(limit + 1, RANKING);
+        counts.forEach((vehicleId, count) -> {
+            long favorites = count.sum();
+            if (favorites <= 0) {
+                return;
+            }
+            top.add(new FavoriteCountDTO(vehicleId, favorites));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        List<FavoriteCountDTO> ranking = new ArrayList<>(top);
+        ranking.sort(RANKING.reversed());
+        return ranking;
+    }
+
+    /**
+     * Substitui todos os contadores pelos do banco. Quem chama garante que nenhum lote seja aplicado durante a
+     * leitura do banco e a troca (ver FavoriteService).
+     */
+    void replaceAll(Map<Long, Long> fresh) {
+        ConcurrentMap<Long, LongAdder> replacement = new ConcurrentHashMap<>(fresh.size());
+        fresh.forEach((vehicleId, count) -> {
+            LongAdder adder = new LongAdder();
+            adder.add(count);
+            replacement.put(vehicleId, adder);
+        });
+        counts = replacement;
+    }
+
+    // Os favoritos do veículo excluído saem do banco na mesma transação (ver VehicleService.deleteVehicle)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        if (event.isDeleted()) {
+            counts.remove(event.vehicleId());
+        }
+    }
+
+    // Os favoritos do usuário excluído saem do banco na mesma transação (ver UserService.deleteUser)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        event.favoriteVehicleIds().forEach(vehicleId -> add(vehicleId, -1));
+    }
+}
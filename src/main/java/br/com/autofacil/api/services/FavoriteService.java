@@ -0,0 +1,188 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.FavoriteCountDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.repositories.UserRepo;
+import br.com.autofacil.api.repositories.UserRepoCustom.Favorite;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Favoritos dos usuários, gravados com write-behind: marcar e desmarcar apenas registram o estado desejado
+ * em memória, e um lote periódico (autofacil.favorites.flush-interval) grava o estado final de cada par
+ * usuário/veículo direto na tabela favorites. Alternâncias rápidas (marca, desmarca, marca) custam uma
+ * única escrita, ou nenhuma.
+ *
+ * Favoritos ainda não gravados se perdem se a instância cair antes do lote seguinte; no desligamento normal
+ * o buffer é gravado. Se o buffer passar de autofacil.favorites.max-pending, quem chama grava o lote na hora.
+ *
+ * Métricas: favorites.pending (pares aguardando o lote), favorites.coalesced (alterações que substituíram
+ * outra ainda pendente) e favorites.written (linhas de fato gravadas ou removidas, com a tag 'operation').
+ */
+@Slf4j
+@Service
+public class FavoriteService {
+    static final int MAX_RANKING_SIZE = 100;
+
+    private final ConcurrentMap<Favorite, Boolean> pending = new ConcurrentHashMap<>();
+    private final UserRepo userRepo;
+    private final VehicleService vehicleService;
+    private final FavoriteCounts counts;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transaction;
+    private final int maxPending;
+
+    public FavoriteService(
+            UserRepo userRepo,
+            VehicleService vehicleService,
+            FavoriteCounts counts,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${autofacil.favorites.max-pending:10000}") int maxPending) {
+        this.userRepo = userRepo;
+        this.vehicleService = vehicleService;
+        this.counts = counts;
+        this.meterRegistry = meterRegistry;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.maxPending = maxPending;
+        Gauge.builder("favorites.pending", pending, ConcurrentMap::size).register(meterRegistry);
+    }
+
+    public void addFavorite(Long userId, Long vehicleId) {
+        record(new Favorite(userId, vehicleId), true);
+    }
+
+    public void removeFavorite(Long userId, Long vehicleId) {
+        record(new Favorite(userId, vehicleId), false);
+    }
+
+    private void record(Favorite favorite, boolean favorited) {
+        if (pending.put(favorite, favorited) != null) {
+            meterRegistry.counter("favorites.coalesced").increment();
+        }
+        if (pending.size() >= maxPending) {
+            flush();
+        }
+    }
+
+    /**
+     * Veículos favoritos do usuário, do maior para o menor ID. Grava antes os pares pendentes desse usuário
+     * (e só eles), para que a lista reflita as alterações que ele acabou de fazer.
+     *
+     * @throws IllegalArgumentException Se a paginação for inválida.
+     */
+    public Page<VehicleResponseDTO> listFavorites(Long userId, int page, int size) {
+        Pageable pageable = Pagination.of(page, size, "id", Sort.Direction.DESC, Set.of("id"));
+        flush(favorite -> favorite.userId().equals(userId));
+
+        Page<Long> ids = userRepo.findFavoriteVehicleIds(userId, pageable);
+        // Veículos e fotos em lote, na ordem dos IDs (ver VehicleService.findByIds)
+        List<VehicleResponseDTO> vehicles = ids.isEmpty() ? List.of() : vehicleService.findByIds(ids.getContent()).items();
+        return new PageImpl<>(vehicles, pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Os veículos mais favoritados, dos contadores em memória (ver FavoriteCounts).
+     *
+     * @throws IllegalArgumentException Se o limite estiver fora de 1..MAX_RANKING_SIZE.
+     */
+    public List<FavoriteCountDTO> ranking(int limit) {
+        if (limit < 1 || limit > MAX_RANKING_SIZE) {
+            throw new IllegalArgumentException("O limite do ranking deve estar entre 1 e " + MAX_RANKING_SIZE + ".");
+        }
+        return counts.top(limit);
+    }
+
+    /**
+     * Grava em uma transação o estado pendente de cada par: inserções e remoções em um lote JDBC cada. Os
+     * contadores recebem apenas as linhas de fato gravadas ou removidas. Em caso de falha, os pares voltam ao
+     * buffer, sem sobrescrever alterações mais novas feitas no meio tempo.
+     */
+    @Scheduled(fixedDelayString = "${autofacil.favorites.flush-interval:1s}")
+    @PreDestroy
+    public void flush() {
+        flush(favorite -> true);
+    }
+
+    // Grava apenas os pares selecionados; os demais seguem no buffer até o próximo lote
+    private synchronized void flush(Predicate<Favorite> selected) {
+        List<Favorite> added = new ArrayList<>();
+        List<Favorite> removed = new ArrayList<>();
+        for (Favorite favorite : pending.keySet()) {
+            if (!selected.test(favorite)) {
+                continue;
+            }
+            Boolean favorited = pending.remove(favorite);
+            if (favorited != null) {
+                (favorited ? added : removed).add(favorite);
+            }
+        }
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        int[][] rows;
+        try {
+            rows = transaction.execute(status -> new int[][]{
+                    added.isEmpty() ? new int[0] : userRepo.insertFavorites(added),
+                    removed.isEmpty() ? new int[0] : userRepo.deleteFavorites(removed)
+            });
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar {} favoritos; eles voltam ao buffer.", added.size() + removed.size(), e);
+            added.forEach(favorite -> pending.putIfAbsent(favorite, true));
+            removed.forEach(favorite -> pending.putIfAbsent(favorite, false));
+            return;
+        }
+
+        applyCounts(added, rows[0], 1, "add");
+        applyCounts(removed, rows[1], -1, "remove");
+    }
+
+    private void applyCounts(List<Favorite> favorites, int[] rows, long delta, String operation) {
+        long written = 0;
+        for (int i = 0; i < rows.length; i++) {
+            // Statement.SUCCESS_NO_INFO (-2), sem contagem do driver, fica de fora; a recarga periódica corrige
+            if (rows[i] > 0) {
+                counts.add(favorites.get(i).vehicleId(), delta);
+                written++;
+            }
+        }
+        meterRegistry.counter("favorites.written", "operation", operation).increment(written);
+    }
+
+    /**
+     * Recarrega os contadores do banco. Sincronizado com o lote, para que nenhum lote seja aplicado sobre
+     * contagens que já o incluem.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${autofacil.favorites.recount-interval:10m}",
+            initialDelayString = "${autofacil.favorites.recount-interval:10m}")
+    public synchronized void recount() {
+        try {
+            counts.replaceAll(userRepo.countFavoritesByVehicle());
+        } catch (RuntimeException e) {
+            // Continua com os contadores atuais
+            log.error("Falha ao recarregar os contadores de favoritos.", e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.exceptions.TooManyAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Locale;
+
+/**
+ * Limita as verificações de senha por conta (email) e por endereço de origem, antes da consulta ao
+ * usuário e do BCrypt. Um ataque de credential stuffing erra quase sempre e por isso nunca chega ao
+ * cache de credenciais; sem este limite cada tentativa custaria um BCrypt completo.
+ *
+ * O limite por email usa buckets exatos em um cache limitado ({@link TokenBucketCache}): um ataque com
+ * milhões de emails diferentes não esgota o limite das contas legítimas. O limite por endereço usa token
+ * buckets aproximados ({@link TokenBucketSketch}), com memória fixa mesmo sob milhões de endereços.
+ *
+ * Métricas: auth.throttled, com a tag 'key' (email ou address).
+ */
+@Component
+public class LoginThrottle {
+    private static final int SKETCH_WIDTH = 16_384;
+
+    private final TokenBucketCache byEmail;
+    private final TokenBucketSketch byAddress;
+    private final Counter throttledByEmail;
+    private final Counter throttledByAddress;
+
+    public LoginThrottle(
+            MeterRegistry meterRegistry,
+            @Value("${autofacil.auth.throttle.email.capacity:10}") int emailCapacity,
+            @Value("${autofacil.auth.throttle.email.refill-per-minute:10}") int emailRefillPerMinute,
+            @Value("${autofacil.auth.throttle.email.max-accounts:100000}") long emailMaxAccounts,
+            @Value("${autofacil.auth.throttle.address.capacity:100}") int addressCapacity,
+            @Value("${autofacil.auth.throttle.address.refill-per-minute:100}") int addressRefillPerMinute) {
+        long start = System.nanoTime();
+        this.byEmail = new TokenBucketCache(emailMaxAccounts, emailCapacity, emailRefillPerMinute, () -> (System.nanoTime() - start) / 1_000_000);
+        this.byAddress = new TokenBucketSketch(SKETCH_WIDTH, addressCapacity, addressRefillPerMinute, () -> (System.nanoTime() - start) / 1_000_000);
+        this.throttledByEmail = meterRegistry.counter("auth.throttled", "key", "email");
+        this.throttledByAddress = meterRegistry.counter("auth.throttled", "key", "address");
+    }
+
+    /**
+     * Registra uma tentativa de verificação de senha para o email, vinda do cliente da requisição atual.
+     *
+     * @throws TooManyAttemptsException Se o email ou o endereço de origem excederam o limite.
+     */
+    public void acquire(String email) {
+        String address = currentClientAddress();
+        if (address != null && !byAddress.tryAcquire(address)) {
+            throttledByAddress.increment();
+            throw new TooManyAttemptsException("Muitas tentativas de login deste endereço. Tente novamente mais tarde.",
+                    byAddress.secondsUntilAvailable(address));
+        }
+
+        String account = email.trim().toLowerCase(Locale.ROOT);
+        if (!byEmail.tryAcquire(account)) {
+            throttledByEmail.increment();
+            throw new TooManyAttemptsException("Muitas tentativas de login para esta conta. Tente novamente mais tarde.",
+                    byEmail.secondsUntilAvailable(account));
+        }
+    }
+
+    // Fora de uma requisição HTTP (ex: tarefas internas) só o limite por email se aplica. Atrás de um proxy
+    // confiável, getRemoteAddr() já é o cliente do X-Forwarded-For (server.forward-headers-strategy=native)
+    private static String currentClientAddress() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return request.getRemoteAddr();
+        }
+        return null;
+    }
+}
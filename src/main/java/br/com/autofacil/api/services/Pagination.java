@@ -0,0 +1,42 @@
+package br.com.autofacil.api.services;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Validação dos parâmetros de paginação e ordenação recebidos pelos endpoints de listagem.
+ */
+final class Pagination {
+    static final int MAX_PAGE_SIZE = 100;
+
+    private Pagination() {
+    }
+
+    /**
+     * Monta o Pageable, desempatando pelo ID para que a ordem entre páginas seja estável.
+     *
+     * @param sortable Propriedades aceitas em 'sortBy' (apenas colunas indexadas ou baratas de ordenar).
+     * @throws IllegalArgumentException Se a página, o tamanho ou a ordenação forem inválidos.
+     */
+    static Pageable of(int page, int size, String sortBy, Sort.Direction direction, Set<String> sortable) {
+        if (page < 0) {
+            throw new IllegalArgumentException("A página não pode ser negativa.");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + MAX_PAGE_SIZE + ".");
+        }
+        if (!sortable.contains(sortBy)) {
+            throw new IllegalArgumentException("Ordenação inválida: " + sortBy + ". Use um de " + new TreeSet<>(sortable) + ".");
+        }
+
+        Sort sort = Sort.by(direction, sortBy);
+        if (!"id".equals(sortBy)) {
+            sort = sort.and(Sort.by(direction, "id"));
+        }
+        return PageRequest.of(page, size, sort);
+    }
+}
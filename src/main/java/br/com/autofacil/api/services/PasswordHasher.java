@@ -0,0 +1,81 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executa o BCrypt (geração e verificação de hashes de senha) em um pool próprio e limitado.
+ *
+ * O BCrypt é proposital e puramente CPU. Executado na thread da requisição, um pico de logins ocupa todos
+ * os núcleos e atrasa também as requisições que não autenticam; com threads virtuais (que não limitam a
+ * concorrência) isso piora. Aqui no máximo autofacil.password-hashing.threads hashes rodam ao mesmo tempo,
+ * até autofacil.password-hashing.queue-capacity esperam, e o excedente é recusado com 503.
+ */
+@Component
+public class PasswordHasher {
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ExecutorService executor;
+
+    public PasswordHasher(
+            BCryptPasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${autofacil.password-hashing.threads:0}") int threads,
+            @Value("${autofacil.password-hashing.queue-capacity:256}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.passwordEncoder = passwordEncoder;
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password-hashing");
+    }
+
+    public String encode(String rawPassword) {
+        return call(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return call(() -> passwordEncoder.matches(rawPassword, passwordHash));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T call(Callable<T> task) {
+        try {
+            return executor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Muitas autenticações simultâneas. Tente novamente em instantes.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Requisição interrompida durante o processamento da senha.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Falha ao processar a senha.", e.getCause());
+        }
+    }
+}
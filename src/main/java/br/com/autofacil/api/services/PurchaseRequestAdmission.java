@@ -0,0 +1,145 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.events.PurchaseRequestClosedEvent;
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import br.com.autofacil.api.exceptions.ConflictException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Controle de admissão das solicitações de compra, por veículo, à frente de
+ * {@link PurchaseRequestService#createPurchaseRequest}.
+ *
+ * Quando um veículo muito procurado é publicado, centenas de compradores pedem o mesmo veículo ao mesmo tempo,
+ * mas só uma solicitação pode ficar pendente. Aqui:
+ * <ul>
+ *     <li>as solicitações de um mesmo veículo são executadas uma de cada vez (locks distribuídos em faixas pelo ID,
+ *     então veículos diferentes quase nunca esperam uns pelos outros);</li>
+ *     <li>depois que o banco recusa ou aceita uma solicitação, o veículo fica marcado como "fechado" em memória,
+ *     e as próximas são recusadas sem acesso ao banco e, pela {@link #rejectIfClosed} chamada logo após a
+ *     autenticação, sem entrar na fila do veículo. A verificação vem depois da autenticação para que um
+ *     chamador anônimo não descubra pelo 409 quais veículos têm solicitação pendente.</li>
+ * </ul>
+ *
+ * A marcação é desfeita após o commit de qualquer alteração no veículo ({@link VehicleChangedEvent}) ou no
+ * fechamento da solicitação pendente ({@link PurchaseRequestClosedEvent}). Alterações feitas por outras
+ * instâncias não chegam aqui, por isso as marcações também expiram (autofacil.purchase-admission.state-ttl).
+ * O banco continua sendo a garantia final (ver PurchaseRequestRepo.insertPending).
+ *
+ * Métricas: purchase-request.admission.queue-depth (fila do veículo na chegada de cada solicitação),
+ * purchase-request.admission.short-circuited (recusas sem acesso ao banco) e
+ * purchase-request.admission.queue.max (maior fila atual). Veículos com fila a partir de
+ * autofacil.purchase-admission.hot-queue-depth são registrados no log.
+ */
+@Slf4j
+@Component
+public class PurchaseRequestAdmission {
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Map<Long, Integer> queueDepths = new ConcurrentHashMap<>();
+    // Veículo -> mensagem do conflito que o banco devolveu (ou devolveria) para uma nova solicitação
+    private final Cache<Long, String> closedVehicles;
+    private final Duration maxWait;
+    private final int hotQueueDepth;
+    private final DistributionSummary queueDepthSummary;
+    private final Counter shortCircuited;
+
+    public PurchaseRequestAdmission(
+            MeterRegistry meterRegistry,
+            @Value("${autofacil.purchase-admission.state-ttl:30s}") Duration stateTtl,
+            @Value("${autofacil.purchase-admission.max-wait:2s}") Duration maxWait,
+            @Value("${autofacil.purchase-admission.hot-queue-depth:20}") int hotQueueDepth) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.closedVehicles = Caffeine.newBuilder()
+                .expireAfterWrite(stateTtl)
+                .maximumSize(100_000)
+                .build();
+        this.maxWait = maxWait;
+        this.hotQueueDepth = hotQueueDepth;
+        this.queueDepthSummary = DistributionSummary.builder("purchase-request.admission.queue-depth")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.shortCircuited = meterRegistry.counter("purchase-request.admission.short-circuited");
+        meterRegistry.gauge("purchase-request.admission.queue.max", queueDepths,
+                depths -> depths.values().stream().mapToInt(Integer::intValue).max().orElse(0));
+    }
+
+    /**
+     * Recusa de imediato uma solicitação para um veículo que já sabemos não aceitar novas solicitações.
+     *
+     * @throws ConflictException Se o veículo estiver marcado como fechado.
+     */
+    public void rejectIfClosed(Long vehicleId) {
+        String reason = closedVehicles.getIfPresent(vehicleId);
+        if (reason != null) {
+            shortCircuited.increment();
+            throw new ConflictException(reason);
+        }
+    }
+
+    /**
+     * Executa a criação da solicitação com exclusividade sobre o veículo.
+     *
+     * @param create A criação da solicitação; uma {@link ConflictException} lançada por ela fecha o veículo.
+     * @throws ConflictException Se o veículo estiver fechado ou a fila dele não andar dentro do tempo máximo de espera.
+     */
+    public <T> T admit(Long vehicleId, Supplier<T> create) {
+        int depth = queueDepths.merge(vehicleId, 1, Integer::sum);
+        queueDepthSummary.record(depth);
+        if (depth == hotQueueDepth) {
+            log.info("Veículo {} com {} solicitações de compra simultâneas na fila.", vehicleId, depth);
+        }
+
+        ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(vehicleId), STRIPES)];
+        try {
+            if (!lock.tryLock(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ConflictException("O veículo com ID " + vehicleId + " está recebendo muitas solicitações. Tente novamente.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Solicitação interrompida enquanto aguardava a vez do veículo com ID " + vehicleId + ".");
+        } finally {
+            queueDepths.computeIfPresent(vehicleId, (id, current) -> current > 1 ? current - 1 : null);
+        }
+
+        try {
+            // Quem esperou na fila normalmente encontra o veículo já fechado pela solicitação anterior
+            rejectIfClosed(vehicleId);
+            T created = create.get();
+            closedVehicles.put(vehicleId, "Já existe uma solicitação de compra PENDENTE para o veículo com ID " + vehicleId + ".");
+            return created;
+        } catch (ConflictException e) {
+            closedVehicles.put(vehicleId, e.getMessage());
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        closedVehicles.invalidate(event.vehicleId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseRequestClosed(PurchaseRequestClosedEvent event) {
+        closedVehicles.invalidate(event.vehicleId());
+    }
+}
@@ -1,7 +1,10 @@
 package br.com.autofacil.api.services;
 
+import br.com.autofacil.api.dtos.BatchDTO;
 import br.com.autofacil.api.dtos.purchaserequest.PurchaseRequestResponseDTO;
 import br.com.autofacil.api.dtos.vendorsale.VendorSaleRequestDTO;
+import br.com.autofacil.api.events.PurchaseRequestClosedEvent;
+import br.com.autofacil.api.exceptions.ConflictException;
 import br.com.autofacil.api.models.PurchaseRequest;
 import br.com.autofacil.api.models.PurchaseRequestStatus;
 import br.com.autofacil.api.models.User;
@@ -11,6 +14,7 @@ import br.com.autofacil.api.repositories.UserRepo;
 import br.com.autofacil.api.repositories.VehicleRepo;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,45 +29,40 @@ public class PurchaseRequestService {
     private final UserRepo userRepo;
     private final VehicleRepo vehicleRepo;
     private final VendorSaleService vendorSaleService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Cria uma nova solicitação de compra.
      *
+     * O caminho comum é uma única instrução (ver PurchaseRequestRepo.insertPending): a verificação de solicitação
+     * pendente e a gravação acontecem juntas no banco, então requisições simultâneas para o mesmo veículo não
+     * conseguem criar duas solicitações pendentes. O veículo só é lido quando a inserção é recusada, para explicar o motivo.
+     *
      * @param vehicleId O ID do veículo que está sendo solicitado.
      * @param buyer O usuário que está fazendo a solicitação (comprador).
      * @return O DTO de resposta da solicitação de compra criada.
      * @throws EntityNotFoundException Se o veículo não for encontrado.
-     * @throws IllegalStateException Se o veículo já estiver vendido ou já tiver uma solicitação pendente.
+     * @throws ConflictException Se o veículo já estiver vendido ou já tiver uma solicitação pendente.
      * @throws IllegalArgumentException Se o comprador for o próprio vendedor do veículo.
      */
-    @Transactional
     public PurchaseRequestResponseDTO createPurchaseRequest(Long vehicleId, User buyer) {
-        // Busca o veículo
-        Vehicle vehicle = vehicleRepo.findById(vehicleId)
-                .orElseThrow(() -> new EntityNotFoundException("Veículo com ID " + vehicleId + " não encontrado."));
+        return purchaseRequestRepo.insertPending(vehicleId, buyer.getId(), LocalDateTime.now())
+                .orElseThrow(() -> rejectionReason(vehicleId, buyer));
+    }
 
-        // Verifica se o veículo já foi vendido
-        if (vehicle.isSold()) {
-            throw new IllegalStateException("Veículo com ID " + vehicleId + " já foi vendido e não pode receber solicitações de compra.");
-        }
+    private RuntimeException rejectionReason(Long vehicleId, User buyer) {
+        Vehicle vehicle = vehicleRepo.findById(vehicleId).orElse(null);
 
-        // Verifica se já existe uma solicitação PENDENTE para este veículo
-        if (purchaseRequestRepo.findByVehicleIdAndStatus(vehicleId, PurchaseRequestStatus.PENDING).isPresent()) {
-            throw new IllegalStateException("Já existe uma solicitação de compra PENDENTE para o veículo com ID " + vehicleId + ".");
+        if (vehicle == null) {
+            return new EntityNotFoundException("Veículo com ID " + vehicleId + " não encontrado.");
+        }
+        if (vehicle.isSold()) {
+            return new ConflictException("Veículo com ID " + vehicleId + " já foi vendido e não pode receber solicitações de compra.");
         }
-
-        // Verifica se o comprador não é o próprio vendedor do veículo
         if (vehicle.getVendor().getId().equals(buyer.getId())) {
-            throw new IllegalArgumentException("O comprador não pode fazer uma solicitação de compra para seu próprio veículo.");
+            return new IllegalArgumentException("O comprador não pode fazer uma solicitação de compra para seu próprio veículo.");
         }
-
-        // Cria a nova solicitação de compra
-        PurchaseRequest purchaseRequest = new PurchaseRequest(vehicle, buyer, vehicle.getVendor());
-        purchaseRequest.setRequestDate(LocalDateTime.now());
-        purchaseRequest.setStatus(PurchaseRequestStatus.PENDING);
-
-        PurchaseRequest savedRequest = purchaseRequestRepo.save(purchaseRequest);
-        return PurchaseRequestResponseDTO.fromEntity(savedRequest);
+        return new ConflictException("Já existe uma solicitação de compra PENDENTE para o veículo com ID " + vehicleId + ".");
     }
 
     /**
@@ -79,6 +78,17 @@ public class PurchaseRequestService {
         return PurchaseRequestResponseDTO.fromEntity(purchaseRequest);
     }
 
+    /**
+     * Retorna várias solicitações de compra pelos seus IDs, com uma consulta por bloco de IDs (ver BatchLookup).
+     *
+     * @param ids Os IDs, na ordem em que as solicitações devem ser devolvidas.
+     * @return As solicitações encontradas e os IDs inexistentes.
+     * @throws IllegalArgumentException Se a lista de IDs for vazia ou longa demais.
+     */
+    public BatchDTO<PurchaseRequestResponseDTO> getPurchaseRequestsByIds(List<Long> ids) {
+        return BatchLookup.resolve(ids, purchaseRequestRepo::findResponsesByIdIn, PurchaseRequestResponseDTO::id);
+    }
+
     /**
      * Retorna todas as solicitações de compra feitas por um comprador específico.
      * Útil para o dashboard do comprador.
@@ -115,7 +125,9 @@ public class PurchaseRequestService {
      * @return O DTO de resposta da solicitação de compra atualizada.
      * @throws EntityNotFoundException Se a solicitação não for encontrada.
      * @throws SecurityException Se o vendedor atual não for o vendedor da solicitação.
-     * @throws IllegalStateException Se a solicitação não estiver no status PENDING.
+     * @throws ConflictException Se a solicitação não estiver no status PENDING ou o veículo já tiver sido vendido.
+     * @throws org.springframework.dao.OptimisticLockingFailureException Se a solicitação ou o veículo forem alterados
+     *         por outra transação antes do commit (a chamada pode ser repetida pelo ConflictRetry).
      */
     @Transactional
     public PurchaseRequestResponseDTO acceptPurchaseRequest(Long purchaseRequestId, User currentVendor) {
@@ -129,12 +141,12 @@ public class PurchaseRequestService {
 
         // Verifica se a solicitação está pendente
         if (purchaseRequest.getStatus() != PurchaseRequestStatus.PENDING) {
-            throw new IllegalStateException("A solicitação de compra com ID " + purchaseRequestId + " não está pendente e não pode ser aceita.");
+            throw new ConflictException("A solicitação de compra com ID " + purchaseRequestId + " não está pendente e não pode ser aceita.");
         }
 
         // Verifica se o veículo já foi vendido por alguma outra forma (garantia extra)
         if (purchaseRequest.getVehicle().isSold()) {
-            throw new IllegalStateException("O veículo desta solicitação (ID " + purchaseRequest.getVehicle().getId() + ") já foi vendido.");
+            throw new ConflictException("O veículo desta solicitação (ID " + purchaseRequest.getVehicle().getId() + ") já foi vendido.");
         }
 
         // Cria um DTO de venda para registrar a venda através do VendorSaleService
@@ -165,7 +177,7 @@ public class PurchaseRequestService {
      * @return O DTO de resposta da solicitação de compra atualizada.
      * @throws EntityNotFoundException Se a solicitação não for encontrada.
      * @throws SecurityException Se o vendedor atual não for o vendedor da solicitação.
-     * @throws IllegalStateException Se a solicitação não estiver no status PENDING.
+     * @throws ConflictException Se a solicitação não estiver no status PENDING.
      */
     @Transactional
     public PurchaseRequestResponseDTO denyPurchaseRequest(Long purchaseRequestId, User currentVendor) {
@@ -179,7 +191,7 @@ public class PurchaseRequestService {
 
         // Verifica se a solicitação está pendente
         if (purchaseRequest.getStatus() != PurchaseRequestStatus.PENDING) {
-            throw new IllegalStateException("A solicitação de compra com ID " + purchaseRequestId + " não está pendente e não pode ser negada.");
+            throw new ConflictException("A solicitação de compra com ID " + purchaseRequestId + " não está pendente e não pode ser negada.");
         }
 
         // Atualiza o status da solicitação de compra para NEGADA
@@ -187,6 +199,8 @@ public class PurchaseRequestService {
         purchaseRequest.setResponseDate(LocalDateTime.now());
         PurchaseRequest updatedRequest = purchaseRequestRepo.save(purchaseRequest);
 
+        eventPublisher.publishEvent(new PurchaseRequestClosedEvent(purchaseRequest.getVehicle().getId()));
+
         return PurchaseRequestResponseDTO.fromEntity(updatedRequest);
     }
 
@@ -197,9 +211,12 @@ public class PurchaseRequestService {
      */
     @Transactional
     public void deletePurchaseRequest(Long id) {
-        if (!purchaseRequestRepo.existsById(id)) {
-            throw new EntityNotFoundException("Solicitação de compra com ID " + id + " não encontrada.");
+        PurchaseRequest purchaseRequest = purchaseRequestRepo.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Solicitação de compra com ID " + id + " não encontrada."));
+        purchaseRequestRepo.delete(purchaseRequest);
+
+        if (purchaseRequest.getStatus() == PurchaseRequestStatus.PENDING) {
+            eventPublisher.publishEvent(new PurchaseRequestClosedEvent(purchaseRequest.getVehicle().getId()));
         }
-        purchaseRequestRepo.deleteById(id);
     }
 }
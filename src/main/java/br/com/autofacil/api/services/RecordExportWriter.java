@@ -0,0 +1,106 @@
+package br.com.autofacil.api.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Escreve um Stream de records como NDJSON (um objeto JSON por linha) ou CSV (cabeçalho com os
+ * nomes dos componentes do record), linha a linha, sem acumular o resultado em memória.
+ */
+final class RecordExportWriter<T extends Record> {
+    // Descarrega o buffer periodicamente para o cliente começar a receber antes do fim da consulta
+    private static final int FLUSH_EVERY = 1000;
+
+    private final Class<T> type;
+    private final RecordComponent[] components;
+    private final ObjectWriter jsonWriter;
+
+    RecordExportWriter(Class<T> type, ObjectMapper objectMapper) {
+        this.type = type;
+        this.components = type.getRecordComponents();
+        // O writer não pode fechar nem descarregar o stream da resposta após cada linha; o flush é feito a cada FLUSH_EVERY
+        this.jsonWriter = objectMapper.writerFor(type)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * @return A quantidade de linhas escritas.
+     */
+    long write(Stream<T> rows, ExportFormat format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writeCsvHeader(writer);
+        }
+
+        long written = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(row, writer);
+            } else {
+                jsonWriter.writeValue(writer, row);
+            }
+            writer.write('\n');
+
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    private void writeCsvHeader(Writer writer) throws IOException {
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(components[i].getName());
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvLine(T row, Writer writer) throws IOException {
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = valueOf(components[i], row);
+            if (value != null) {
+                writer.write(csvEscape(value.toString()));
+            }
+        }
+    }
+
+    private Object valueOf(RecordComponent component, T row) {
+        try {
+            return component.getAccessor().invoke(row);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Não foi possível ler " + component.getName() + " de " + type.getSimpleName(), e);
+        }
+    }
+
+    // RFC 4180: campos com vírgula, aspas ou quebra de linha ficam entre aspas, com aspas duplicadas
+    static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.autofacil.api.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa leituras idênticas e simultâneas em uma única carga ("single flight").
+ *
+ * A primeira chamada para uma chave executa a carga na própria thread; as que chegam enquanto ela está em
+ * andamento esperam e recebem o mesmo resultado (ou a mesma exceção). Após o término, o resultado continua
+ * disponível por uma janela curta (autofacil.single-flight.linger), que absorve a rajada de chamadas que
+ * chega logo depois; o resultado servido pode, portanto, estar atrasado em até essa janela. Falhas não
+ * ficam retidas: a próxima chamada tenta de novo.
+ *
+ * O resultado é compartilhado entre threads e deve ser imutável (DTOs, não entidades gerenciadas), e a carga
+ * deve abrir sua própria transação, para que as chamadas em espera não segurem conexões do pool.
+ *
+ * Métricas: single-flight.loads (cargas executadas) e single-flight.coalesced (chamadas atendidas pela carga
+ * de outra), ambas com a tag 'operation'.
+ */
+@Component
+public class SingleFlight {
+    private final ConcurrentMap<Key, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Duration linger;
+
+    public SingleFlight(MeterRegistry meterRegistry, @Value("${autofacil.single-flight.linger:50ms}") Duration linger) {
+        this.meterRegistry = meterRegistry;
+        this.linger = linger;
+    }
+
+    /**
+     * @param operation Nome da leitura, usado nas métricas e como parte da chave (ex: "vehicle.detail").
+     * @param key Parâmetros da leitura; chamadas com chaves iguais (equals) compartilham a carga.
+     * @param loader A carga.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> loader) {
+        Key flightKey = new Key(operation, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = flights.putIfAbsent(flightKey, flight);
+
+        if (existing != null) {
+            counter("single-flight.coalesced", operation).increment();
+            return (T) await(existing);
+        }
+
+        counter("single-flight.loads", operation).increment();
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            land(flightKey, flight);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flights.remove(flightKey, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void land(Key key, CompletableFuture<Object> flight) {
+        if (linger.isZero() || linger.isNegative()) {
+            flights.remove(key, flight);
+        } else {
+            CompletableFuture.delayedExecutor(linger.toNanos(), TimeUnit.NANOSECONDS)
+                    .execute(() -> flights.remove(key, flight));
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // A mesma exceção da carga, como se esta chamada a tivesse executado
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return meterRegistry.counter(name, "operation", operation);
+    }
+
+    private record Key(String operation, Object key) {}
+}
@@ -0,0 +1,61 @@
+package br.com.autofacil.api.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets exatos, um por chave, em um cache limitado.
+ *
+ * Diferente do {@link TokenBucketSketch}, chaves nunca dividem um bucket: um ataque com milhões de chaves
+ * diferentes não esgota o limite das demais. A memória é limitada pelo tamanho máximo do cache. Um bucket
+ * parado por mais que o tempo de reposição completa está cheio e sai do cache sem perda; sob pressão, o
+ * cache descarta os buckets menos usados, o que no pior caso devolve a rajada a uma chave.
+ */
+final class TokenBucketCache {
+    private final Cache<String, AtomicLong> buckets;
+    private final TokenBucketRate rate;
+    private final LongSupplier clockMillis;
+
+    /**
+     * @param maxKeys Máximo de chaves com bucket em memória.
+     * @param capacity Tentativas permitidas em rajada.
+     * @param refillPerMinute Tentativas devolvidas ao bucket por minuto.
+     * @param clockMillis Relógio monotônico em milissegundos, a partir de zero.
+     */
+    TokenBucketCache(long maxKeys, int capacity, int refillPerMinute, LongSupplier clockMillis) {
+        this.rate = new TokenBucketRate(capacity, refillPerMinute);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(rate.timeToRefill())
+                .maximumSize(maxKeys)
+                .build();
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * Consome uma tentativa da chave, se houver token no seu bucket.
+     */
+    boolean tryAcquire(String key) {
+        long now = clockMillis.getAsLong();
+        AtomicLong bucket = buckets.get(key, newKey -> new AtomicLong());
+        long state;
+        do {
+            state = bucket.get();
+            if (!rate.hasToken(state, now)) {
+                return false;
+            }
+        } while (!bucket.compareAndSet(state, rate.consume(state, now)));
+        return true;
+    }
+
+    /**
+     * Segundos até a chave voltar a ter uma tentativa disponível (ao menos 1).
+     */
+    long secondsUntilAvailable(String key) {
+        AtomicLong bucket = buckets.getIfPresent(key);
+        long deficit = bucket == null ? 0 : rate.deficitAt(bucket.get(), clockMillis.getAsLong());
+        return rate.secondsUntilAvailable(deficit);
+    }
+}
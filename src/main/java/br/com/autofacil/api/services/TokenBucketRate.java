@@ -0,0 +1,60 @@
+package br.com.autofacil.api.services;
+
+import java.time.Duration;
+
+/**
+ * Capacidade e reposição de um token bucket, e as contas sobre o estado compactado de um bucket em um long
+ * (instante do último ajuste e tokens consumidos, em milésimos de tentativa). Um estado zerado é um bucket cheio.
+ * Usado por {@link TokenBucketSketch} e {@link TokenBucketCache}, que guardam os estados e os atualizam por CAS.
+ */
+final class TokenBucketRate {
+    private static final int DEFICIT_BITS = 20;
+    private static final long DEFICIT_MASK = (1L << DEFICIT_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final long capacityMilli;
+    private final double refillMilliPerMs;
+
+    /**
+     * @param capacity Tentativas permitidas em rajada.
+     * @param refillPerMinute Tentativas devolvidas ao bucket por minuto.
+     */
+    TokenBucketRate(int capacity, int refillPerMinute) {
+        if (capacity < 1 || capacity * MILLI > DEFICIT_MASK || refillPerMinute < 1) {
+            throw new IllegalArgumentException("Capacidade deve estar entre 1 e " + DEFICIT_MASK / MILLI + " e a reposição ser positiva.");
+        }
+        this.capacityMilli = capacity * MILLI;
+        this.refillMilliPerMs = refillPerMinute * MILLI / 60_000.0;
+    }
+
+    boolean hasToken(long state, long now) {
+        return deficitAt(state, now) + MILLI <= capacityMilli;
+    }
+
+    // Estado após consumir uma tentativa
+    long consume(long state, long now) {
+        return (now << DEFICIT_BITS) | Math.min(capacityMilli, deficitAt(state, now) + MILLI);
+    }
+
+    // Tokens consumidos (em milésimos) descontada a reposição desde o último ajuste
+    long deficitAt(long state, long now) {
+        long deficit = state & DEFICIT_MASK;
+        long elapsed = Math.max(0, now - (state >>> DEFICIT_BITS));
+        return Math.max(0, deficit - (long) (elapsed * refillMilliPerMs));
+    }
+
+    /**
+     * Segundos até um bucket com o déficit informado voltar a ter uma tentativa disponível (ao menos 1).
+     */
+    long secondsUntilAvailable(long deficit) {
+        long missing = deficit + MILLI - capacityMilli;
+        return Math.max(1, (long) Math.ceil(missing / refillMilliPerMs / 1000));
+    }
+
+    /**
+     * Tempo para um bucket vazio voltar a ficar cheio; depois dele o estado equivale a um bucket novo.
+     */
+    Duration timeToRefill() {
+        return Duration.ofMillis((long) Math.ceil(capacityMilli / refillMilliPerMs));
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.autofacil.api.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets aproximados, um por chave, em memória fixa e sem locks.
+ *
+ * Em vez de um mapa de chaves (que um ataque com milhões de endereços faria crescer sem limite), cada chave é
+ * espalhada por {@link #ROWS} linhas de {@code width} células, como um count-min sketch, e cada célula é um
+ * token bucket compactado em um long (instante do último ajuste e tokens consumidos), atualizado por CAS.
+ * Uma tentativa só passa se todas as células da chave tiverem token. Colisões entre chaves só podem
+ * tornar o limite mais restrito, nunca mais permissivo, e com várias linhas são raras: cada linha usa um
+ * hash independente, então duas chaves só dividem todas as células se colidirem em todos eles.
+ *
+ * Memória: ROWS * width * 8 bytes, independentemente de quantas chaves aparecerem. Em troca, com chaves
+ * ativas demais para a largura as células enchem e o limite passa a recusar chaves inocentes; onde isso
+ * seria um bloqueio geral (ex: por conta), use {@link TokenBucketCache}.
+ */
+final class TokenBucketSketch {
+    static final int ROWS = 2;
+
+    // Uma semente por linha: cada linha usa um hash de 64 bits próprio, calculado sobre os bytes da chave
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL};
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final AtomicLongArray cells;
+    private final int widthMask;
+    private final TokenBucketRate rate;
+    private final LongSupplier clockMillis;
+
+    /**
+     * @param width Células por linha; arredondado para potência de dois.
+     * @param capacity Tentativas permitidas em rajada.
+     * @param refillPerMinute Tentativas devolvidas ao bucket por minuto.
+     * @param clockMillis Relógio monotônico em milissegundos, a partir de zero.
+     */
+    TokenBucketSketch(int width, int capacity, int refillPerMinute, LongSupplier clockMillis) {
+        this.rate = new TokenBucketRate(capacity, refillPerMinute);
+        int roundedWidth = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+        this.cells = new AtomicLongArray(ROWS * roundedWidth);
+        this.widthMask = roundedWidth - 1;
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * Consome uma tentativa da chave, se houver token em todas as suas células.
+     */
+    boolean tryAcquire(String key) {
+        long now = clockMillis.getAsLong();
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+
+        int[] indexes = new int[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            indexes[row] = row * (widthMask + 1) + cellOf(bytes, row);
+            if (!rate.hasToken(cells.get(indexes[row]), now)) {
+                return false;
+            }
+        }
+
+        // Entre a verificação e o consumo outra thread pode consumir o último token; o excesso é de no máximo
+        // uma tentativa por disputa, aceitável para este uso
+        for (int index : indexes) {
+            long state;
+            long updated;
+            do {
+                state = cells.get(index);
+                updated = rate.consume(state, now);
+            } while (!cells.compareAndSet(index, state, updated));
+        }
+        return true;
+    }
+
+    /**
+     * Segundos até a chave voltar a ter uma tentativa disponível (ao menos 1).
+     */
+    long secondsUntilAvailable(String key) {
+        long now = clockMillis.getAsLong();
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long worstDeficit = 0;
+        for (int row = 0; row < ROWS; row++) {
+            worstDeficit = Math.max(worstDeficit, rate.deficitAt(cells.get(row * (widthMask + 1) + cellOf(bytes, row)), now));
+        }
+        return rate.secondsUntilAvailable(worstDeficit);
+    }
+
+    private int cellOf(byte[] key, int row) {
+        return (int) hash64(key, SEEDS[row]) & widthMask;
+    }
+
+    // FNV-1a de 64 bits partindo da semente, seguido do finalizador do MurmurHash3 para espalhar os bits baixos
+    static long hash64(byte[] key, long seed) {
+        long hash = seed;
+        for (byte b : key) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.TokenResponseDTO;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Emite e valida tokens de acesso assinados com HMAC-SHA256.
+ *
+ * Formato: {@code base64url(userId:role:expiraEmEpochSegundos) + "." + base64url(assinatura)}.
+ * A validação é puramente computacional (sem banco de dados), o que tira o BCrypt e a consulta
+ * à tabela {@code users} do caminho de cada requisição autenticada.
+ */
+@Slf4j
+@Service
+public class TokenService {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(
+            @Value("${autofacil.auth.token.secret:}") String secret,
+            @Value("${autofacil.auth.token.ttl:1h}") Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration ttl, Clock clock) {
+        this.key = new SecretKeySpec(secretBytes(secret), HMAC_ALGORITHM);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Dados extraídos de um token válido.
+     */
+    public record Claims(Long userId, UserRole role, Instant expiresAt) {
+    }
+
+    /**
+     * Emite um token para um usuário já autenticado.
+     *
+     * @param user O usuário autenticado.
+     * @return O token e seus metadados.
+     */
+    public TokenResponseDTO issue(User user) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        String payload = user.getId() + ":" + user.getRole().name() + ":" + expiresAt.getEpochSecond();
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        String token = encodedPayload + "." + ENCODER.encodeToString(sign(encodedPayload));
+
+        return new TokenResponseDTO(token, "Bearer", expiresAt, user.getId(), user.getRole());
+    }
+
+    /**
+     * Valida a assinatura e a expiração de um token.
+     *
+     * @param token O token recebido no cabeçalho Authorization.
+     * @return As informações do token, ou vazio se ele for inválido ou estiver expirado.
+     */
+    public Optional<Claims> verify(String token) {
+        int separator = token.indexOf('.');
+        if (separator <= 0 || separator != token.lastIndexOf('.')) {
+            return Optional.empty();
+        }
+
+        String encodedPayload = token.substring(0, separator);
+        try {
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                return Optional.empty();
+            }
+
+            String[] parts = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) {
+                return Optional.empty();
+            }
+
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[2]));
+            if (!clock.instant().isBefore(expiresAt)) {
+                return Optional.empty();
+            }
+            return Optional.of(new Claims(Long.parseLong(parts[0]), UserRole.valueOf(parts[1]), expiresAt));
+        } catch (IllegalArgumentException e) {
+            // Base64, número ou papel malformados
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC indisponível para assinatura de tokens.", e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+
+        // Sem segredo configurado os tokens só valem para esta instância e até o próximo restart
+        log.warn("autofacil.auth.token.secret não configurado; usando um segredo aleatório.");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
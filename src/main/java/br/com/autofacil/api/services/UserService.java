@@ -1,33 +1,51 @@
 package br.com.autofacil.api.services;
 
+import br.com.autofacil.api.dtos.BatchDTO;
+import br.com.autofacil.api.dtos.user.UserFilterDTO;
 import br.com.autofacil.api.dtos.user.UserRequestDTO;
 import br.com.autofacil.api.dtos.user.UserResponseDTO;
 import br.com.autofacil.api.dtos.user.UserUpdateDTO;
+import br.com.autofacil.api.events.UserDeletedEvent;
 import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
 import br.com.autofacil.api.repositories.UserRepo;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder; // Importado BCryptPasswordEncoder
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserService {
     private final UserRepo userRepo;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final VehicleService vehicleService;
+    private final PasswordHasher passwordHasher;
+    private final VerifiedCredentialCache credentialCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Set<String> SORTABLE = Set.of("id", "name");
 
-    public UserService(UserRepo userRepo) {
+    public UserService(UserRepo userRepo, VehicleService vehicleService, PasswordHasher passwordHasher, VerifiedCredentialCache credentialCache,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepo = userRepo;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.vehicleService = vehicleService;
+        this.passwordHasher = passwordHasher;
+        this.credentialCache = credentialCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public UserResponseDTO createUser(UserRequestDTO dto) {
         User user = new User();
         user.setName(dto.name());
         user.setEmail(dto.email());
-        user.setPasswordHash(passwordEncoder.encode(dto.password()));
+        user.setPasswordHash(passwordHasher.encode(dto.password()));
         user.setPhonenumber(dto.phonenumber());
         user.setCpf(dto.cpf());
         user.setDateOfBirth(dto.dateOfBirth());
@@ -37,10 +55,15 @@ public class UserService {
         return new UserResponseDTO(user.getId(), user.getName(), user.getEmail(), user.getRole());
     }
 
-    public List<UserResponseDTO> findAll() {
-        return userRepo.findAll().stream()
-                .map(u -> new UserResponseDTO(u.getId(), u.getName(), u.getEmail(), u.getRole()))
-                .toList();
+    /**
+     * Página de usuários, filtrada por papel e início do nome.
+     *
+     * @param sortBy A propriedade de ordenação: id ou name.
+     * @throws IllegalArgumentException Se a paginação ou a ordenação forem inválidas.
+     */
+    public Page<UserResponseDTO> listUsers(UserFilterDTO filter, int page, int size, String sortBy, Sort.Direction direction) {
+        Pageable pageable = Pagination.of(page, size, sortBy, direction, SORTABLE);
+        return userRepo.findPage(filter, pageable);
     }
 
     public UserResponseDTO findById(Long id) {
@@ -50,6 +73,15 @@ public class UserService {
         return new UserResponseDTO(user.getId(), user.getName(), user.getEmail(), user.getRole());
     }
 
+    /**
+     * Vários usuários pelos seus IDs, com uma consulta por bloco de IDs (ver BatchLookup).
+     *
+     * @throws IllegalArgumentException Se a lista de IDs for vazia ou longa demais.
+     */
+    public BatchDTO<UserResponseDTO> findByIds(List<Long> ids) {
+        return BatchLookup.resolve(ids, userRepo::findResponsesByIdIn, UserResponseDTO::id);
+    }
+
     public Optional<User> findByEmail(String email){
         return userRepo.findByEmail(email);
     }
@@ -57,17 +89,29 @@ public class UserService {
     public UserResponseDTO updateUser(Long id, UserUpdateDTO dto) {
         User user = userRepo.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado"));
+        boolean renamed = !Objects.equals(user.getName(), dto.name());
 
         user.setName(dto.name());
         user.setEmail(dto.email());
         user.setPhonenumber(dto.phonenumber());
         user.setCpf(dto.cpf());
         userRepo.save(user);
+        credentialCache.invalidateUser(id);
+
+        // O nome do vendedor aparece em cada veículo dele: novas versões e o catálogo atualizado invalidam os ETags
+        if (renamed && user.getRole() == UserRole.VENDOR) {
+            vehicleService.republishVendorVehicles(id);
+        }
 
         return new UserResponseDTO(user.getId(), user.getName(), user.getEmail(), user.getRole());
     }
 
+    @Transactional
     public void deleteUser(Long id) {
+        // Os contadores dos veículos favoritados por ele são decrementados depois do commit (ver FavoriteCounts)
+        List<Long> favoriteVehicleIds = userRepo.deleteFavoritesOfUser(id);
         userRepo.deleteById(id);
+        credentialCache.invalidateUser(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id, favoriteVehicleIds));
     }
 }
\ No newline at end of file
@@ -0,0 +1,603 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.VehicleFacetsDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleFilterDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cópia em memória, organizada por colunas, dos veículos ainda não vendidos.
+ *
+ * Cada atributo fica em um array primitivo indexado pela linha (anos em {@code int[]}, preços em
+ * centavos em {@code long[]}); marca, modelo, cor, tipo e nome do vendedor são codificados em
+ * dicionários que mantêm um {@link BitSet} de linhas por valor. Um filtro vira um AND de bitsets e
+ * a paginação percorre o resultado do maior para o menor ID, sem acessar o PostgreSQL.
+ *
+ * As linhas ficam ordenadas por ID. O catálogo é mantido pelos {@link VehicleChangedEvent}
+ * (cadastro, alteração, venda, exclusão e registro/exclusão de vendas) e reconstruído
+ * periodicamente a partir do banco, o que incorpora alterações feitas por outras instâncias.
+ */
+@Slf4j
+@Component
+public class VehicleCatalog {
+    private final VehicleRepo vehicleRepo;
+    private final VehicleSearchIndex searchIndex;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Protegidos por 'lock'
+    private Columns columns = new Columns(0);
+    private boolean rebuilding;
+    private final List<VehicleChangedEvent> changesDuringRebuild = new ArrayList<>();
+
+    private volatile boolean ready;
+    private final String instanceId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Instant lastFullSync;
+
+    public VehicleCatalog(VehicleRepo vehicleRepo, VehicleSearchIndex searchIndex, MeterRegistry meterRegistry) {
+        this.vehicleRepo = vehicleRepo;
+        this.searchIndex = searchIndex;
+
+        Gauge.builder("vehicle.catalog.size", this, catalog -> catalog.read(() -> catalog.columns.live.cardinality()))
+                .description("Veículos disponíveis no catálogo em memória")
+                .register(meterRegistry);
+        Gauge.builder("vehicle.catalog.memory", this, catalog -> catalog.read(() -> catalog.columns.estimateBytes()))
+                .description("Memória estimada ocupada pelo catálogo em memória")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        TimeGauge.builder("vehicle.catalog.staleness", this, TimeUnit.MILLISECONDS, VehicleCatalog::stalenessMillis)
+                .description("Tempo desde a última reconstrução completa a partir do banco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica se o catálogo já foi carregado e pode responder consultas.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Versão da listagem de veículos: muda a cada alteração de veículo aplicada ao catálogo e a cada
+     * reconstrução. Como é incrementada só depois de a alteração estar visível no catálogo (e, portanto,
+     * já confirmada no banco), um ETag calculado com ela antes da consulta nunca é mais novo que o conteúdo.
+     * Inclui um identificador da instância, pois o contador recomeça a cada subida.
+     */
+    public String version() {
+        return instanceId + "-" + generation.get();
+    }
+
+    /**
+     * Filtra e pagina os veículos disponíveis, do maior para o menor ID.
+     *
+     * @param filter Os filtros da listagem; o filtro 'sold' é ignorado, pois o catálogo só contém veículos não vendidos.
+     * @param pageable A página desejada (a ordenação é sempre por ID decrescente).
+     */
+    public Page<VehicleResponseDTO> query(VehicleFilterDTO filter, Pageable pageable) {
+        Selection selection = Selection.of(filter, searchIndex);
+        return read(() -> columns.page(columns.select(selection), pageable));
+    }
+
+    /**
+     * Como {@link #query}, mas também conta os veículos selecionados por marca, tipo, cor, faixa de ano
+     * e faixa de preço, em uma única varredura das linhas selecionadas.
+     */
+    public VehicleFacetsDTO facets(VehicleFilterDTO filter, Pageable pageable) {
+        Selection selection = Selection.of(filter, searchIndex);
+        return read(() -> {
+            BitSet matches = columns.select(selection);
+            VehicleFacetCounter counter = new VehicleFacetCounter();
+            columns.count(matches, counter);
+            return counter.toDto(columns.page(matches, pageable));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                changesDuringRebuild.add(event);
+            }
+            columns.apply(event);
+            generation.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${autofacil.catalog.refresh-interval:5m}",
+            initialDelayString = "${autofacil.catalog.refresh-interval:5m}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            changesDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns fresh = null;
+        try {
+            fresh = load();
+        } catch (RuntimeException e) {
+            // Continua servindo o catálogo anterior; sem catálogo, a listagem consulta o banco
+            log.error("Falha ao reconstruir o catálogo de veículos.", e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (fresh != null) {
+                // Alterações confirmadas enquanto o banco era lido; reaplicá-las é idempotente
+                changesDuringRebuild.forEach(fresh::apply);
+                columns = fresh;
+                lastFullSync = Instant.now();
+                ready = true;
+                generation.incrementAndGet();
+            }
+            rebuilding = false;
+            changesDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Columns load() {
+        Map<Long, List<String>> photoUrls = vehicleRepo.findUnsoldPhotoUrls().stream()
+                .collect(Collectors.groupingBy(
+                        VehicleRepo.PhotoUrl::getVehicleId,
+                        Collectors.mapping(VehicleRepo.PhotoUrl::getUrl, Collectors.toList())
+                ));
+
+        List<VehicleRepo.CatalogRow> rows = vehicleRepo.findUnsoldForCatalog();
+        Columns loaded = new Columns(rows.size());
+        for (VehicleRepo.CatalogRow row : rows) {
+            loaded.append(new VehicleResponseDTO(
+                    row.getId(),
+                    row.getBrand(),
+                    row.getModel(),
+                    row.getVehicleYear() == null ? 0 : row.getVehicleYear(),
+                    row.getColor(),
+                    row.getPrice(),
+                    row.getVehicleType(),
+                    false,
+                    photoUrls.getOrDefault(row.getId(), List.of()),
+                    row.getVendorId(),
+                    row.getVendorName()
+            ));
+        }
+        return loaded;
+    }
+
+    private double stalenessMillis() {
+        Instant synced = lastFullSync;
+        return synced == null ? Double.NaN : Instant.now().toEpochMilli() - synced.toEpochMilli();
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filtros já resolvidos para o formato do catálogo: marcas e modelos exatos (ou {@code null}
+     * quando não filtrados), o texto original de cada um para o fallback e preços em centavos.
+     */
+    private record Selection(
+            Collection<String> brands,
+            String brand,
+            Collection<String> models,
+            String model,
+            Integer year,
+            Long minPriceCents,
+            Long maxPriceCents,
+            String vehicleType,
+            String color
+    ) {
+        static Selection of(VehicleFilterDTO filter, VehicleSearchIndex searchIndex) {
+            // Marca e modelo são resolvidos para os valores exatos pelo mesmo índice usado na consulta ao banco
+            return new Selection(
+                    filter.hasBrand() ? searchIndex.matchingBrands(filter.brand()) : null,
+                    filter.brand(),
+                    filter.hasModel() ? searchIndex.matchingModels(filter.model()) : null,
+                    filter.model(),
+                    filter.year(),
+                    filter.minPrice() == null ? null : toCents(filter.minPrice(), RoundingMode.CEILING),
+                    filter.maxPrice() == null ? null : toCents(filter.maxPrice(), RoundingMode.FLOOR),
+                    filter.hasVehicleType() ? filter.vehicleType() : null,
+                    filter.hasColor() ? filter.color() : null
+            );
+        }
+
+        boolean accepts(int vehicleYear, long priceCents) {
+            if (year != null && vehicleYear != year) {
+                return false;
+            }
+            // Como no SQL, um veículo sem preço não passa por nenhum filtro de preço
+            if ((minPriceCents != null || maxPriceCents != null) && priceCents == Columns.NO_PRICE) {
+                return false;
+            }
+            return (minPriceCents == null || priceCents >= minPriceCents)
+                    && (maxPriceCents == null || priceCents <= maxPriceCents);
+        }
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode rounding) {
+        return price.setScale(2, rounding).unscaledValue().longValue();
+    }
+
+    /**
+     * Armazenamento colunar. Não é thread-safe; o acesso é protegido pelo lock do catálogo.
+     */
+    private static final class Columns {
+        private static final long NO_PRICE = Long.MIN_VALUE;
+
+        private int size;
+        private long[] ids;
+        private int[] years;
+        private long[] priceCents;
+        private long[] vendorIds;
+        private int[] brands;
+        private int[] models;
+        private int[] colors;
+        private int[] types;
+        private int[] vendorNames;
+        private List<?>[] photoUrls;
+
+        private final BitSet live = new BitSet();
+        private final Map<Long, Integer> rowById = new HashMap<>();
+        private final Dictionary brandDictionary = new Dictionary();
+        private final Dictionary modelDictionary = new Dictionary();
+        private final Dictionary colorDictionary = new Dictionary();
+        private final Dictionary typeDictionary = new Dictionary();
+        private final Dictionary vendorNameDictionary = new Dictionary();
+
+        Columns(int capacity) {
+            allocate(Math.max(capacity, 16));
+        }
+
+        void apply(VehicleChangedEvent event) {
+            if (event.isDeleted() || event.vehicle().sold()) {
+                remove(event.vehicleId());
+            } else {
+                upsert(event.vehicle());
+            }
+        }
+
+        void upsert(VehicleResponseDTO vehicle) {
+            Integer row = rowById.get(vehicle.id());
+            if (row != null) {
+                release(row);
+                write(row, vehicle);
+                return;
+            }
+
+            boolean outOfOrder = size > 0 && vehicle.id() < ids[size - 1];
+            append(vehicle);
+
+            // Um veículo antigo que volta ao catálogo (ex: venda excluída) quebra a ordenação por ID;
+            // a compactação reordena as linhas e também descarta as linhas removidas
+            int liveRows = live.cardinality();
+            if (outOfOrder || size - liveRows > Math.max(1024, liveRows)) {
+                compact();
+            }
+        }
+
+        void remove(Long id) {
+            Integer row = rowById.remove(id);
+            if (row != null) {
+                release(row);
+            }
+        }
+
+        void append(VehicleResponseDTO vehicle) {
+            if (size == ids.length) {
+                grow(size * 2);
+            }
+            write(size++, vehicle);
+        }
+
+        BitSet select(Selection selection) {
+            BitSet matches = (BitSet) live.clone();
+            // Sem valores no índice de busca, aplica o mesmo LIKE sem diferenciar maiúsculas da consulta ao banco
+            if (selection.brands() != null) {
+                matches.and(selection.brands().isEmpty()
+                        ? brandDictionary.rowsContainingIgnoreCase(selection.brand())
+                        : brandDictionary.rowsOf(selection.brands()));
+            }
+            if (selection.models() != null) {
+                matches.and(selection.models().isEmpty()
+                        ? modelDictionary.rowsContainingIgnoreCase(selection.model())
+                        : modelDictionary.rowsOf(selection.models()));
+            }
+            if (selection.vehicleType() != null) {
+                matches.and(typeDictionary.rowsOfIgnoreCase(selection.vehicleType()));
+            }
+            if (selection.color() != null) {
+                matches.and(colorDictionary.rowsOfIgnoreCase(selection.color()));
+            }
+            if (selection.year() != null || selection.minPriceCents() != null || selection.maxPriceCents() != null) {
+                for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                    if (!selection.accepts(years[row], priceCents[row])) {
+                        matches.clear(row);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        Page<VehicleResponseDTO> page(BitSet matches, Pageable pageable) {
+            List<VehicleResponseDTO> content = new ArrayList<>(pageable.getPageSize());
+            long toSkip = pageable.getOffset();
+            for (int row = matches.length() - 1; row >= 0 && content.size() < pageable.getPageSize(); row = matches.previousSetBit(row - 1)) {
+                if (toSkip > 0) {
+                    toSkip--;
+                } else {
+                    content.add(toDto(row));
+                }
+            }
+            return new PageImpl<>(content, pageable, matches.cardinality());
+        }
+
+        // Contagem por código de dicionário durante a varredura; os valores só são decodificados no final
+        void count(BitSet matches, VehicleFacetCounter counter) {
+            long[] perBrand = new long[brandDictionary.size()];
+            long[] perType = new long[typeDictionary.size()];
+            long[] perColor = new long[colorDictionary.size()];
+
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                perBrand[brands[row]]++;
+                perType[types[row]]++;
+                perColor[colors[row]]++;
+                counter.addYear(years[row], 1);
+                counter.addPriceBucket(priceCents[row] == NO_PRICE ? -1 : VehicleFacetCounter.priceBucket(priceCents[row]), 1);
+            }
+
+            for (int code = 0; code < perBrand.length; code++) {
+                counter.addBrand(brandDictionary.decode(code), perBrand[code]);
+            }
+            for (int code = 0; code < perType.length; code++) {
+                counter.addVehicleType(typeDictionary.decode(code), perType[code]);
+            }
+            for (int code = 0; code < perColor.length; code++) {
+                counter.addColor(colorDictionary.decode(code), perColor[code]);
+            }
+        }
+
+        long estimateBytes() {
+            long bytes = (long) ids.length * (Long.BYTES * 3 + Integer.BYTES * 6 + 8);
+            bytes += live.size() / 8;
+            bytes += rowById.size() * 64L;
+            bytes += brandDictionary.estimateBytes() + modelDictionary.estimateBytes() + colorDictionary.estimateBytes()
+                    + typeDictionary.estimateBytes() + vendorNameDictionary.estimateBytes();
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                bytes += 16;
+                for (Object url : photoUrls[row]) {
+                    bytes += 40 + ((String) url).length();
+                }
+            }
+            return bytes;
+        }
+
+        private void write(int row, VehicleResponseDTO vehicle) {
+            ids[row] = vehicle.id();
+            years[row] = vehicle.year();
+            priceCents[row] = vehicle.price() == null ? NO_PRICE : toCents(vehicle.price(), RoundingMode.HALF_UP);
+            vendorIds[row] = vehicle.vendorId();
+            brands[row] = brandDictionary.encode(vehicle.brand(), row);
+            models[row] = modelDictionary.encode(vehicle.model(), row);
+            colors[row] = colorDictionary.encode(vehicle.color(), row);
+            types[row] = typeDictionary.encode(vehicle.vehicleType(), row);
+            vendorNames[row] = vendorNameDictionary.encode(vehicle.vendorName(), row);
+            photoUrls[row] = vehicle.photoUrls() == null ? List.of() : List.copyOf(vehicle.photoUrls());
+            live.set(row);
+            rowById.put(vehicle.id(), row);
+        }
+
+        private void release(int row) {
+            live.clear(row);
+            brandDictionary.release(brands[row], row);
+            modelDictionary.release(models[row], row);
+            colorDictionary.release(colors[row], row);
+            typeDictionary.release(types[row], row);
+            vendorNameDictionary.release(vendorNames[row], row);
+            photoUrls[row] = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private VehicleResponseDTO toDto(int row) {
+            return new VehicleResponseDTO(
+                    ids[row],
+                    brandDictionary.decode(brands[row]),
+                    modelDictionary.decode(models[row]),
+                    years[row],
+                    colorDictionary.decode(colors[row]),
+                    priceCents[row] == NO_PRICE ? null : BigDecimal.valueOf(priceCents[row], 2),
+                    typeDictionary.decode(types[row]),
+                    false,
+                    (List<String>) photoUrls[row],
+                    vendorIds[row],
+                    vendorNameDictionary.decode(vendorNames[row])
+            );
+        }
+
+        private void compact() {
+            List<VehicleResponseDTO> rows = new ArrayList<>(live.cardinality());
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                rows.add(toDto(row));
+            }
+            rows.sort((a, b) -> Long.compare(a.id(), b.id()));
+
+            Columns compacted = new Columns(rows.size() + rows.size() / 2);
+            rows.forEach(compacted::append);
+
+            size = compacted.size;
+            ids = compacted.ids;
+            years = compacted.years;
+            priceCents = compacted.priceCents;
+            vendorIds = compacted.vendorIds;
+            brands = compacted.brands;
+            models = compacted.models;
+            colors = compacted.colors;
+            types = compacted.types;
+            vendorNames = compacted.vendorNames;
+            photoUrls = compacted.photoUrls;
+            live.clear();
+            live.or(compacted.live);
+            rowById.clear();
+            rowById.putAll(compacted.rowById);
+            brandDictionary.replaceWith(compacted.brandDictionary);
+            modelDictionary.replaceWith(compacted.modelDictionary);
+            colorDictionary.replaceWith(compacted.colorDictionary);
+            typeDictionary.replaceWith(compacted.typeDictionary);
+            vendorNameDictionary.replaceWith(compacted.vendorNameDictionary);
+        }
+
+        private void allocate(int capacity) {
+            ids = new long[capacity];
+            years = new int[capacity];
+            priceCents = new long[capacity];
+            vendorIds = new long[capacity];
+            brands = new int[capacity];
+            models = new int[capacity];
+            colors = new int[capacity];
+            types = new int[capacity];
+            vendorNames = new int[capacity];
+            photoUrls = new List<?>[capacity];
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            years = Arrays.copyOf(years, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            vendorIds = Arrays.copyOf(vendorIds, capacity);
+            brands = Arrays.copyOf(brands, capacity);
+            models = Arrays.copyOf(models, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            types = Arrays.copyOf(types, capacity);
+            vendorNames = Arrays.copyOf(vendorNames, capacity);
+            photoUrls = Arrays.copyOf(photoUrls, capacity);
+        }
+    }
+
+    /**
+     * Dicionário de valores de uma coluna textual: código por valor e bitset de linhas por código.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<BitSet> rows = new ArrayList<>();
+
+        int encode(String value, int row) {
+            int code = codes.computeIfAbsent(value, newValue -> {
+                values.add(newValue);
+                rows.add(new BitSet());
+                return values.size() - 1;
+            });
+            rows.get(code).set(row);
+            return code;
+        }
+
+        void release(int code, int row) {
+            rows.get(code).clear(row);
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+
+        BitSet rowsOf(Collection<String> wanted) {
+            BitSet result = new BitSet();
+            for (String value : wanted) {
+                Integer code = codes.get(value);
+                if (code != null) {
+                    result.or(rows.get(code));
+                }
+            }
+            return result;
+        }
+
+        // Tipo e cor são filtrados sem diferenciar maiúsculas; a varredura é sobre os valores distintos
+        BitSet rowsOfIgnoreCase(String wanted) {
+            BitSet result = new BitSet();
+            for (int code = 0; code < values.size(); code++) {
+                if (wanted.equalsIgnoreCase(values.get(code))) {
+                    result.or(rows.get(code));
+                }
+            }
+            return result;
+        }
+
+        BitSet rowsContainingIgnoreCase(String wanted) {
+            String lowerWanted = wanted.toLowerCase(Locale.ROOT);
+            BitSet result = new BitSet();
+            for (int code = 0; code < values.size(); code++) {
+                String value = values.get(code);
+                if (value != null && value.toLowerCase(Locale.ROOT).contains(lowerWanted)) {
+                    result.or(rows.get(code));
+                }
+            }
+            return result;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void replaceWith(Dictionary other) {
+            codes.clear();
+            codes.putAll(other.codes);
+            values.clear();
+            values.addAll(other.values);
+            rows.clear();
+            rows.addAll(other.rows);
+        }
+
+        long estimateBytes() {
+            long bytes = codes.size() * 48L;
+            for (String value : values) {
+                bytes += value == null ? 0 : 40 + value.length();
+            }
+            for (BitSet bits : rows) {
+                bytes += 16 + bits.size() / 8;
+            }
+            return bytes;
+        }
+    }
+}
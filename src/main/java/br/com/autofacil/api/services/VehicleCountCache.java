@@ -0,0 +1,51 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.VehicleFilterDTO;
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Totais da listagem de veículos por combinação de filtros, para que a paginação não repita o COUNT(*) a
+ * cada página. Qualquer alteração de veículo ({@link VehicleChangedEvent}: cadastro, edição, venda, exclusão)
+ * descarta todos os totais, já que pode mudar a contagem de vários filtros; alterações feitas por outras
+ * instâncias aparecem depois do TTL (autofacil.vehicle-count-cache.ttl).
+ *
+ * Métricas: as do Caffeine com cache=vehicle.count.
+ */
+@Component
+public class VehicleCountCache {
+    private final Cache<VehicleFilterDTO, Long> counts;
+
+    public VehicleCountCache(
+            MeterRegistry meterRegistry,
+            @Value("${autofacil.vehicle-count-cache.ttl:30s}") Duration ttl,
+            @Value("${autofacil.vehicle-count-cache.max-size:1000}") long maxSize) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "vehicle.count");
+    }
+
+    /**
+     * @param count A contagem no banco, executada só se o total do filtro não estiver guardado.
+     */
+    public long get(VehicleFilterDTO filter, Supplier<Long> count) {
+        return counts.get(filter, key -> count.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        counts.invalidateAll();
+    }
+}
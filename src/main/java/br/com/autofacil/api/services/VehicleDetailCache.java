@@ -0,0 +1,111 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache do JSON já serializado (e, se compensar, já comprimido com gzip) de {@code GET /vehicles/{id}}.
+ *
+ * Poucos veículos concentram a maior parte das visitas; para eles a resposta sai do cache direto para o
+ * corpo da resposta, sem carregar veículo, fotos e vendedor nem rodar o Jackson. Cada entrada guarda a
+ * versão (@Version) do veículo serializado e só é usada se ainda for a versão atual, de modo que alterações
+ * feitas por outras instâncias também são respeitadas. Além disso, as entradas são descartadas após o commit
+ * de qualquer alteração do veículo ({@link VehicleChangedEvent}: edição, venda, exclusão, registro de venda).
+ *
+ * O tamanho total é limitado em bytes (autofacil.vehicle-detail-cache.max-size). Métricas: as do Caffeine com
+ * cache=vehicle.detail (acertos, faltas, remoções) e vehicle.detail.cache.size (bytes ocupados).
+ */
+@Component
+public class VehicleDetailCache {
+    // Abaixo disso o gzip economiza pouco e custa CPU do cliente
+    private static final int MIN_GZIP_BYTES = 512;
+
+    private final Cache<Long, CachedVehicle> cache;
+    private final ObjectMapper objectMapper;
+    private final boolean gzip;
+
+    public VehicleDetailCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${autofacil.vehicle-detail-cache.max-size:32MB}") DataSize maxSize,
+            @Value("${autofacil.vehicle-detail-cache.gzip:true}") boolean gzip) {
+        this.objectMapper = objectMapper;
+        this.gzip = gzip;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Long id, CachedVehicle cached) -> cached.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "vehicle.detail");
+        Gauge.builder("vehicle.detail.cache.size", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return A resposta em cache, se ela corresponder à versão atual do veículo.
+     */
+    public Optional<CachedVehicle> get(Long vehicleId, long currentVersion) {
+        CachedVehicle cached = cache.getIfPresent(vehicleId);
+        return cached != null && cached.version() == currentVersion ? Optional.of(cached) : Optional.empty();
+    }
+
+    /**
+     * Serializa o veículo e guarda o resultado.
+     */
+    public CachedVehicle put(long version, VehicleResponseDTO vehicle) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(vehicle);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o veículo " + vehicle.id() + ".", e);
+        }
+        CachedVehicle cached = new CachedVehicle(version, json, gzip && json.length >= MIN_GZIP_BYTES ? gzip(json) : null);
+        cache.put(vehicle.id(), cached);
+        return cached;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        cache.invalidate(event.vehicleId());
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @param gzipped O JSON comprimido, ou {@code null} se a compressão estiver desligada ou não compensar.
+     */
+    public record CachedVehicle(long version, byte[] json, byte[] gzipped) {
+
+        // Bytes dos dois arrays mais uma estimativa do overhead da entrada
+        int weight() {
+            return json.length + (gzipped == null ? 0 : gzipped.length) + 64;
+        }
+    }
+}
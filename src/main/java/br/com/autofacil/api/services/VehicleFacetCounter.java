@@ -0,0 +1,112 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.FacetCountDTO;
+import br.com.autofacil.api.dtos.vehicle.RangeCountDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleFacetsDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Acumula as contagens das facetas da listagem de veículos. É alimentado tanto pela varredura do
+ * VehicleCatalog quanto pelas linhas agrupadas da consulta ao banco, de modo que as duas origens
+ * produzem as mesmas faixas.
+ */
+final class VehicleFacetCounter {
+    static final int YEAR_BUCKET_SIZE = 5;
+
+    // Limites superiores (exclusivos) das faixas de preço; a última faixa é aberta
+    static final List<BigDecimal> PRICE_LIMITS = List.of(
+            BigDecimal.valueOf(30_000),
+            BigDecimal.valueOf(60_000),
+            BigDecimal.valueOf(100_000),
+            BigDecimal.valueOf(200_000)
+    );
+    private static final long[] PRICE_LIMIT_CENTS = PRICE_LIMITS.stream()
+            .mapToLong(limit -> limit.movePointRight(2).longValueExact())
+            .toArray();
+
+    private final Map<String, Long> brands = new HashMap<>();
+    private final Map<String, Long> vehicleTypes = new HashMap<>();
+    private final Map<String, Long> colors = new HashMap<>();
+    private final Map<Integer, Long> yearBuckets = new TreeMap<>();
+    private final long[] priceBuckets = new long[PRICE_LIMITS.size() + 1];
+
+    void addBrand(String brand, long count) {
+        add(brands, brand, count);
+    }
+
+    void addVehicleType(String vehicleType, long count) {
+        add(vehicleTypes, vehicleType, count);
+    }
+
+    void addColor(String color, long count) {
+        add(colors, color, count);
+    }
+
+    void addYear(int year, long count) {
+        yearBuckets.merge(yearBucket(year), count, Long::sum);
+    }
+
+    /**
+     * @param bucket Índice da faixa de preço, como devolvido por {@link #priceBucket}; negativo para veículos sem preço.
+     */
+    void addPriceBucket(int bucket, long count) {
+        if (bucket >= 0) {
+            priceBuckets[bucket] += count;
+        }
+    }
+
+    static int yearBucket(int year) {
+        return Math.floorDiv(year, YEAR_BUCKET_SIZE) * YEAR_BUCKET_SIZE;
+    }
+
+    static int priceBucket(long priceCents) {
+        int bucket = 0;
+        while (bucket < PRICE_LIMIT_CENTS.length && priceCents >= PRICE_LIMIT_CENTS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    static int priceBucket(BigDecimal price) {
+        return price == null ? -1 : priceBucket(price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue());
+    }
+
+    VehicleFacetsDTO toDto(Page<VehicleResponseDTO> hits) {
+        List<RangeCountDTO<Integer>> years = new ArrayList<>();
+        yearBuckets.forEach((from, count) -> years.add(new RangeCountDTO<>(from, from + YEAR_BUCKET_SIZE, count)));
+
+        // As faixas de preço são fixas e aparecem mesmo sem veículos, para a barra lateral não mudar de forma
+        List<RangeCountDTO<BigDecimal>> prices = new ArrayList<>();
+        for (int bucket = 0; bucket < priceBuckets.length; bucket++) {
+            BigDecimal from = bucket == 0 ? BigDecimal.ZERO : PRICE_LIMITS.get(bucket - 1);
+            BigDecimal to = bucket < PRICE_LIMITS.size() ? PRICE_LIMITS.get(bucket) : null;
+            prices.add(new RangeCountDTO<>(from, to, priceBuckets[bucket]));
+        }
+
+        return new VehicleFacetsDTO(hits, sorted(brands), sorted(vehicleTypes), sorted(colors), years, prices);
+    }
+
+    private static void add(Map<String, Long> counts, String value, long count) {
+        if (value != null && count > 0) {
+            counts.merge(value, count, Long::sum);
+        }
+    }
+
+    // Mais frequentes primeiro; empates em ordem alfabética
+    private static List<FacetCountDTO> sorted(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> new FacetCountDTO(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(FacetCountDTO::count).reversed().thenComparing(FacetCountDTO::value))
+                .toList();
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Campos pedidos no parâmetro 'fields' dos endpoints de veículos (ex: fields=id,brand,model,year,price).
+ *
+ * Os campos são os de {@link VehicleResponseDTO} e aparecem na resposta na mesma ordem do DTO, qualquer que
+ * seja a ordem pedida. Só as colunas pedidas são lidas: sem vendorName não há junção com o vendedor, e sem
+ * photoUrls as fotos não são consultadas.
+ */
+public final class VehicleFields {
+    static final String PHOTO_URLS = "photoUrls";
+
+    // Ordem dos campos em VehicleResponseDTO
+    static final List<String> ALL = List.of(
+            "id", "brand", "model", "year", "color", "price", "vehicleType", "sold", PHOTO_URLS, "vendorId", "vendorName"
+    );
+
+    private final List<String> fields;
+
+    private VehicleFields(List<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a lista estiver vazia ou tiver um campo desconhecido.
+     */
+    public static VehicleFields of(String fields) {
+        List<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .toList();
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um campo em 'fields'. Campos disponíveis: " + String.join(",", ALL) + ".");
+        }
+        for (String field : requested) {
+            if (!ALL.contains(field)) {
+                throw new IllegalArgumentException("Campo inválido em 'fields': " + field + ". Campos disponíveis: " + String.join(",", ALL) + ".");
+            }
+        }
+        return new VehicleFields(ALL.stream().filter(requested::contains).toList());
+    }
+
+    boolean includes(String field) {
+        return fields.contains(field);
+    }
+
+    /**
+     * Colunas a consultar no banco: os campos pedidos, exceto as fotos (lidas em lote à parte), mais o ID,
+     * necessário para associar as fotos e as demais colunas extras pedidas por quem chama.
+     */
+    List<String> columns(String... extra) {
+        List<String> columns = new ArrayList<>(fields);
+        columns.remove(PHOTO_URLS);
+        if (!columns.contains("id")) {
+            columns.add("id");
+        }
+        for (String column : extra) {
+            if (!columns.contains(column)) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Linha lida do banco convertida na resposta: colunas extras removidas e fotos incluídas, se pedidas.
+     */
+    Map<String, Object> toResponse(Map<String, Object> row, List<String> photoUrls) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        for (String field : fields) {
+            response.put(field, PHOTO_URLS.equals(field) ? photoUrls : row.get(field));
+        }
+        return response;
+    }
+
+    /**
+     * Mesmo recorte aplicado a um veículo já carregado por completo (ex: vindo do VehicleCatalog).
+     */
+    Map<String, Object> toResponse(VehicleResponseDTO vehicle) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", vehicle.id());
+        row.put("brand", vehicle.brand());
+        row.put("model", vehicle.model());
+        row.put("year", vehicle.year());
+        row.put("color", vehicle.color());
+        row.put("price", vehicle.price());
+        row.put("vehicleType", vehicle.vehicleType());
+        row.put("sold", vehicle.sold());
+        row.put("vendorId", vehicle.vendorId());
+        row.put("vendorName", vehicle.vendorName());
+        return toResponse(row, vehicle.photoUrls());
+    }
+
+    /**
+     * Forma canônica (campos na ordem do DTO), usada para distinguir ETags de recortes diferentes.
+     */
+    @Override
+    public String toString() {
+        return String.join(",", fields);
+    }
+}
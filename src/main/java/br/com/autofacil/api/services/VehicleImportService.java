@@ -0,0 +1,314 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.VehicleImportReportDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleImportResultDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleImportRowDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.repositories.UserRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Importação em massa de veículos de um vendedor a partir de um corpo CSV ou NDJSON.
+ *
+ * O corpo é lido linha a linha; cada linha é validada isoladamente e as válidas são gravadas em
+ * lotes de {@value #CHUNK_SIZE}, cada lote em sua própria transação, com INSERTs agrupados pelo
+ * Hibernate (hibernate.jdbc.batch_size) e o contexto de persistência limpo após cada lote. Uma
+ * falha de gravação rejeita apenas as linhas do lote em que ocorreu.
+ */
+@Slf4j
+@Service
+public class VehicleImportService {
+    static final int CHUNK_SIZE = 500;
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("brand", "model", "year", "price");
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final UserRepo userRepo;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    public VehicleImportService(UserRepo userRepo, EntityManager entityManager, TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.userRepo = userRepo;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Importa os veículos do corpo para o vendedor autenticado.
+     *
+     * @param body O corpo da requisição: CSV com cabeçalho (brand, model, year, color, price, vehicleType,
+     *             photoUrls, com fotos separadas por '|') ou NDJSON (um VehicleImportRowDTO por linha).
+     * @param contentType text/csv ou application/x-ndjson.
+     * @param authenticatedVendor O vendedor dono dos veículos.
+     * @return O resultado de cada linha, em ordem.
+     * @throws IllegalArgumentException Se o formato não for suportado ou o cabeçalho do CSV for inválido.
+     * @throws EntityNotFoundException Se o vendedor não existir.
+     */
+    public VehicleImportReportDTO importVehicles(InputStream body, MediaType contentType, User authenticatedVendor) throws IOException {
+        boolean csv = TEXT_CSV.isCompatibleWith(contentType);
+        if (!csv && !APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            throw new IllegalArgumentException("Formato não suportado: " + contentType + ". Use text/csv ou application/x-ndjson.");
+        }
+
+        // Carregado uma vez, fora dos lotes, para montar as respostas (nome do vendedor) sem novas consultas
+        User vendor = userRepo.findById(authenticatedVendor.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Vendedor não encontrado."));
+
+        List<VehicleImportResultDTO> results = new ArrayList<>();
+        List<PendingRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        Map<String, Integer> csvColumns = null;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && csvColumns == null) {
+                csvColumns = parseCsvHeader(line);
+                continue;
+            }
+
+            try {
+                VehicleImportRowDTO row = csv ? parseCsvRow(line, csvColumns) : parseJsonRow(line);
+                validate(row);
+                chunk.add(new PendingRow(lineNumber, row));
+            } catch (IllegalArgumentException e) {
+                results.add(new VehicleImportResultDTO(lineNumber, null, e.getMessage()));
+            }
+
+            if (chunk.size() == CHUNK_SIZE) {
+                persistChunk(chunk, vendor, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, vendor, results);
+        }
+
+        results.sort(Comparator.comparingInt(VehicleImportResultDTO::line));
+        int imported = (int) results.stream().filter(result -> result.vehicleId() != null).count();
+        return new VehicleImportReportDTO(results.size(), imported, results.size() - imported, results);
+    }
+
+    private void persistChunk(List<PendingRow> chunk, User vendor, List<VehicleImportResultDTO> results) {
+        try {
+            List<VehicleResponseDTO> saved = transactionTemplate.execute(status -> {
+                User vendorReference = userRepo.getReferenceById(vendor.getId());
+                List<Vehicle> vehicles = new ArrayList<>(chunk.size());
+                for (PendingRow pending : chunk) {
+                    Vehicle vehicle = pending.toVehicle(vendorReference);
+                    entityManager.persist(vehicle);
+                    vehicles.add(vehicle);
+                }
+                entityManager.flush();
+
+                List<VehicleResponseDTO> responses = vehicles.stream()
+                        .map(vehicle -> VehicleResponseDTO.fromEntity(vehicle, vendor))
+                        .toList();
+                // Sem o clear, as entidades de todos os lotes se acumulariam no contexto de persistência
+                entityManager.clear();
+
+                // Entregues ao catálogo e ao índice de busca após o commit do lote
+                responses.forEach(response -> eventPublisher.publishEvent(VehicleChangedEvent.saved(response)));
+                return responses;
+            });
+
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(new VehicleImportResultDTO(chunk.get(i).line(), saved.get(i).id(), null));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar um lote de {} veículos importados.", chunk.size(), e);
+            String error = "Falha ao gravar o lote: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            chunk.forEach(pending -> results.add(new VehicleImportResultDTO(pending.line(), null, error)));
+        }
+    }
+
+    private Map<String, Integer> parseCsvHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("Cabeçalho do CSV sem a coluna obrigatória '" + required + "'.");
+            }
+        }
+        return columns;
+    }
+
+    private static VehicleImportRowDTO parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        String photos = column(values, columns, "photourls");
+
+        return new VehicleImportRowDTO(
+                column(values, columns, "brand"),
+                column(values, columns, "model"),
+                parseYear(column(values, columns, "year")),
+                column(values, columns, "color"),
+                parsePrice(column(values, columns, "price")),
+                column(values, columns, "vehicletype"),
+                photos == null ? List.of() : Arrays.stream(photos.split("\\|")).map(String::trim).filter(url -> !url.isEmpty()).toList()
+        );
+    }
+
+    private VehicleImportRowDTO parseJsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, VehicleImportRowDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    private static void validate(VehicleImportRowDTO row) {
+        requireText(row.brand(), "brand");
+        requireText(row.model(), "model");
+        checkLength(row.color(), "color");
+        checkLength(row.vehicleType(), "vehicleType");
+
+        int maxYear = Year.now().getValue() + 1;
+        if (row.year() == null || row.year() < 1886 || row.year() > maxYear) {
+            throw new IllegalArgumentException("Ano inválido: deve estar entre 1886 e " + maxYear + ".");
+        }
+        if (row.price() == null || row.price().signum() <= 0) {
+            throw new IllegalArgumentException("O preço deve ser um valor positivo.");
+        }
+        if (row.photoUrls() != null) {
+            row.photoUrls().forEach(url -> {
+                requireText(url, "photoUrls");
+                checkLength(url, "photoUrls");
+            });
+        }
+    }
+
+    private static void requireText(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("O campo '" + field + "' é obrigatório.");
+        }
+        checkLength(value, field);
+    }
+
+    private static void checkLength(String value, String field) {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("O campo '" + field + "' excede " + MAX_TEXT_LENGTH + " caracteres.");
+        }
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer parseYear(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ano inválido: " + value);
+        }
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Preço inválido: " + value);
+        }
+    }
+
+    // RFC 4180 dentro de uma linha: campos entre aspas podem conter vírgulas e aspas duplicadas ("")
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Aspas não fechadas na linha.");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private record PendingRow(int line, VehicleImportRowDTO row) {
+        Vehicle toVehicle(User vendor) {
+            return Vehicle.builder()
+                    .brand(row.brand().trim())
+                    .model(row.model().trim())
+                    .year(row.year())
+                    .color(row.color())
+                    .price(row.price())
+                    .vehicleType(row.vehicleType())
+                    .photoUrls(row.photoUrls() == null ? new ArrayList<>() : new ArrayList<>(row.photoUrls()))
+                    .vendor(vendor)
+                    .sold(false)
+                    .build();
+        }
+    }
+}
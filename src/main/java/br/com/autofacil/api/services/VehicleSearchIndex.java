@@ -0,0 +1,235 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido em memória sobre os valores distintos de marca e modelo.
+ *
+ * Marcas e modelos têm baixa cardinalidade, então o índice guarda apenas os valores distintos
+ * (não os veículos): uma busca como "citroen" é resolvida aqui para {@code brand IN ('Citroën', ...)},
+ * que o banco atende pelos índices B-tree de {@code brand} e {@code model} em vez de uma varredura
+ * completa com {@code LIKE '%x%'}. A comparação ignora maiúsculas e acentos.
+ *
+ * O índice é carregado na subida, recebe os valores novos a cada {@link VehicleChangedEvent} e é
+ * reconstruído periodicamente, o que remove valores que deixaram de existir e incorpora alterações
+ * feitas por outras instâncias.
+ */
+@Slf4j
+@Component
+public class VehicleSearchIndex {
+    static final int EXACT = 3;
+    static final int PREFIX = 2;
+    static final int SUBSTRING = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final VehicleRepo vehicleRepo;
+
+    private volatile Field brands = new Field();
+    private volatile Field models = new Field();
+
+    // Protege add() e a troca dos campos no refresh; as buscas leem os campos voláteis sem lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean refreshing;
+    private final List<String> brandsDuringRefresh = new ArrayList<>();
+    private final List<String> modelsDuringRefresh = new ArrayList<>();
+
+    public VehicleSearchIndex(VehicleRepo vehicleRepo) {
+        this.vehicleRepo = vehicleRepo;
+    }
+
+    /**
+     * Valores de marca e modelo compatíveis com um termo da busca (já normalizado), com a pontuação de cada um.
+     */
+    public record TermMatches(String term, Map<String, Integer> brands, Map<String, Integer> models) {
+        public boolean isEmpty() {
+            return brands.isEmpty() && models.isEmpty();
+        }
+    }
+
+    /**
+     * Resolve uma busca livre (ex: "citroen c3") para os valores compatíveis, termo a termo.
+     *
+     * @param query O texto digitado pelo usuário.
+     * @return Uma entrada por termo da busca; vazia se a busca não tiver termos.
+     */
+    public List<TermMatches> match(String query) {
+        Field brandField = brands;
+        Field modelField = models;
+        return tokenize(query).stream()
+                .map(token -> new TermMatches(token, brandField.match(token), modelField.match(token)))
+                .toList();
+    }
+
+    /**
+     * Marcas que contêm todos os termos informados.
+     */
+    public Set<String> matchingBrands(String query) {
+        return brands.matchAll(tokenize(query));
+    }
+
+    /**
+     * Modelos que contêm todos os termos informados.
+     */
+    public Set<String> matchingModels(String query) {
+        return models.matchAll(tokenize(query));
+    }
+
+    public void add(String brand, String model) {
+        lock.lock();
+        try {
+            if (refreshing) {
+                brandsDuringRefresh.add(brand);
+                modelsDuringRefresh.add(model);
+            }
+            brands.add(brand);
+            models.add(model);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        // Exclusões não removem valores: um valor sem veículos apenas não casa com nada até o próximo refresh
+        if (!event.isDeleted()) {
+            add(event.vehicle().brand(), event.vehicle().model());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${autofacil.search.refresh-interval:10m}",
+            initialDelayString = "${autofacil.search.refresh-interval:10m}")
+    public synchronized void refresh() {
+        lock.lock();
+        try {
+            refreshing = true;
+            brandsDuringRefresh.clear();
+            modelsDuringRefresh.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        Field newBrands = null;
+        Field newModels = null;
+        try {
+            newBrands = load(vehicleRepo.findDistinctBrands());
+            newModels = load(vehicleRepo.findDistinctModels());
+        } catch (RuntimeException e) {
+            // Continua com o índice anterior, que segue recebendo os valores novos por add()
+            log.error("Falha ao reconstruir o índice de busca de veículos.", e);
+        }
+
+        lock.lock();
+        try {
+            if (newBrands != null && newModels != null) {
+                // Valores adicionados enquanto o banco era lido podem não estar na leitura
+                brandsDuringRefresh.forEach(newBrands::add);
+                modelsDuringRefresh.forEach(newModels::add);
+                brands = newBrands;
+                models = newModels;
+            }
+            refreshing = false;
+            brandsDuringRefresh.clear();
+            modelsDuringRefresh.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Field load(List<String> values) {
+        Field field = new Field();
+        values.forEach(field::add);
+        return field;
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalize(text)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static final class Field {
+        // termo normalizado -> valores originais que contêm o termo
+        private final ConcurrentSkipListMap<String, Set<String>> valuesByToken = new ConcurrentSkipListMap<>();
+        // valor original -> valor normalizado
+        private final Map<String, String> normalizedByValue = new ConcurrentHashMap<>();
+
+        void add(String value) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String normalized = normalize(value);
+            if (normalizedByValue.putIfAbsent(value, normalized) != null) {
+                return;
+            }
+            for (String token : tokenize(normalized)) {
+                valuesByToken.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(value);
+            }
+        }
+
+        // Pontuação por valor: termo exato > prefixo de um termo > trecho no meio de uma palavra
+        Map<String, Integer> match(String token) {
+            Map<String, Integer> scores = new HashMap<>();
+
+            valuesByToken.subMap(token, true, token + Character.MAX_VALUE, true).forEach((indexed, values) -> {
+                int score = indexed.equals(token) ? EXACT : PREFIX;
+                values.forEach(value -> scores.merge(value, score, Math::max));
+            });
+
+            // Preserva o comportamento do antigo LIKE '%x%' (ex: "oyo" em "Toyota"); a varredura é
+            // sobre os valores distintos, não sobre os veículos
+            normalizedByValue.forEach((value, normalized) -> {
+                if (normalized.contains(token)) {
+                    scores.putIfAbsent(value, SUBSTRING);
+                }
+            });
+            return scores;
+        }
+
+        Set<String> matchAll(Collection<String> tokens) {
+            Set<String> result = null;
+            for (String token : tokens) {
+                Set<String> matches = match(token).keySet();
+                if (result == null) {
+                    result = new HashSet<>(matches);
+                } else {
+                    result.retainAll(matches);
+                }
+            }
+            return result == null ? Set.of() : result;
+        }
+    }
+}
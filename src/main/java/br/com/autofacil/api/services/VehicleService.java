@@ -1,21 +1,39 @@
 package br.com.autofacil.api.services;
 
+import br.com.autofacil.api.dtos.BatchDTO;
+import br.com.autofacil.api.dtos.CursorPageDTO;
+import br.com.autofacil.api.dtos.SlicePageDTO;
 import br.com.autofacil.api.dtos.vehicle.VehicleCreationRequestDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleFacetsDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleFilterDTO;
 import br.com.autofacil.api.dtos.vehicle.VehicleRequestDTO;
 import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.events.VehicleChangedEvent;
 import br.com.autofacil.api.models.User;
 import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.repositories.UserRepo;
 import br.com.autofacil.api.repositories.VehicleRepo;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
 import static br.com.autofacil.api.services.VehicleSpecifications.*;
@@ -23,9 +41,28 @@ import static br.com.autofacil.api.services.VehicleSpecifications.*;
 @Service
 public class VehicleService {
     @Autowired private VehicleRepo vehicleRepo;
+    @Autowired private UserRepo userRepo;
+    @Autowired private VehicleSearchIndex searchIndex;
+    @Autowired private VehicleCatalog catalog;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private SingleFlight singleFlight;
+    @Autowired private VehicleCountCache countCache;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void initReadOnlyTransaction() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
 
     // Create
-    public VehicleResponseDTO registerVehicle(VehicleCreationRequestDTO dto, User vendor) {
+    @Transactional
+    public VehicleResponseDTO registerVehicle(VehicleCreationRequestDTO dto, User authenticatedVendor) {
+        // O vendedor autenticado por token traz apenas ID e papel; a referência carrega o restante sob demanda
+        User vendor = userRepo.getReferenceById(authenticatedVendor.getId());
+
         Vehicle vehicle = new Vehicle();
         vehicle.setBrand(dto.brand());
         vehicle.setModel(dto.model());
@@ -38,44 +75,248 @@ public class VehicleService {
         vehicle.setSold(false); // Veículo ainda não vendido
 
         Vehicle saved = vehicleRepo.save(vehicle);
-        return VehicleResponseDTO.fromEntity(saved, vendor);
+        VehicleResponseDTO response = VehicleResponseDTO.fromEntity(saved, vendor);
+        eventPublisher.publishEvent(VehicleChangedEvent.saved(response));
+        return response;
     }
 
-    // Read
-    public List<VehicleResponseDTO> findAll(
-            Optional<String> brand,
-            Optional<String> model,
-            Optional<Integer> year
-    ) {
-        List<Vehicle> vehicles = vehicleRepo.findAll(Sort.by(Sort.Direction.ASC, "id"));
-        return vehicles.stream()
-                .filter(vehicle -> brand.map(b -> vehicle.getBrand().equalsIgnoreCase(b)).orElse(true))
-                .filter(vehicle -> model.map(m -> vehicle.getModel().equalsIgnoreCase(m)).orElse(true))
-                .filter(vehicle -> year.map(y -> vehicle.getYear() == y).orElse(true))
-                .map(v -> VehicleResponseDTO.fromEntity(v, v.getVendor()))
-                .collect(Collectors.toList());
-    }
-
-    public Page<VehicleResponseDTO> listVehicles(
-            Optional<String> brand,
-            Optional<String> model,
-            Optional<Integer> year,
-            Pageable pageable
+    /**
+     * Listagem paginada com filtros. Listagens apenas de veículos disponíveis (sold=false), na ordem
+     * padrão por ID decrescente, são atendidas pelo VehicleCatalog em memória; as demais vão ao banco.
+     * Consultas idênticas e simultâneas ao banco são agrupadas em uma só (ver SingleFlight); a versão do
+     * catálogo faz parte da chave, de modo que uma consulta iniciada antes de uma alteração não é
+     * compartilhada com as que chegam depois dela.
+     */
+    public Page<VehicleResponseDTO> listVehicles(VehicleFilterDTO filter, Pageable pageable) {
+        if (Boolean.FALSE.equals(filter.sold()) && catalog.isReady() && isIdDescending(pageable.getSort())) {
+            return catalog.query(filter, pageable);
+        }
+
+        return singleFlight.execute("vehicle.listing", new ListingKey(catalog.version(), filter, pageable),
+                () -> loadPage(filter, pageable));
+    }
+
+    private record ListingKey(String listingVersion, VehicleFilterDTO filter, Pageable pageable) {}
+
+    private Page<VehicleResponseDTO> loadPage(VehicleFilterDTO filter, Pageable pageable) {
+        Page<Vehicle> page = vehicleRepo.findAll(filterSpec(filter), pageable);
+        Map<Long, List<String>> photoUrls = findPhotoUrls(page.getContent());
+        return page.map(vehicle -> VehicleResponseDTO.fromEntity(
+                vehicle,
+                vehicle.getVendor(),
+                photoUrls.getOrDefault(vehicle.getId(), List.of())
+        ));
+    }
+
+    /**
+     * Listagem em fatias: a página e se há uma próxima, sem o COUNT(*) que acompanha cada Page. O total é
+     * opcional (ver CountMode) e vem, nesta ordem, do próprio VehicleCatalog (listagens de disponíveis), da
+     * última página (deslocamento + itens), das estatísticas do banco (APPROXIMATE sem filtros) ou do
+     * VehicleCountCache.
+     */
+    public SlicePageDTO<VehicleResponseDTO> listVehicleSlice(VehicleFilterDTO filter, Pageable pageable, CountMode countMode) {
+        if (Boolean.FALSE.equals(filter.sold()) && catalog.isReady() && isIdDescending(pageable.getSort())) {
+            Page<VehicleResponseDTO> page = catalog.query(filter, pageable);
+            Long total = countMode == CountMode.NONE ? null : page.getTotalElements();
+            return slice(page.getContent(), pageable, page.hasNext(), total, true);
+        }
+
+        Slice<Vehicle> slice = vehicleRepo.findSlice(filterSpec(filter), pageable);
+        Map<Long, List<String>> photoUrls = findPhotoUrls(slice.getContent());
+        List<VehicleResponseDTO> content = slice.getContent().stream()
+                .map(vehicle -> VehicleResponseDTO.fromEntity(
+                        vehicle,
+                        vehicle.getVendor(),
+                        photoUrls.getOrDefault(vehicle.getId(), List.of())
+                ))
+                .toList();
+
+        if (countMode == CountMode.NONE) {
+            return slice(content, pageable, slice.hasNext(), null, null);
+        }
+        // Na última página o total sai da própria página, como em PageableExecutionUtils
+        if (!slice.hasNext() && (!content.isEmpty() || pageable.getOffset() == 0)) {
+            return slice(content, pageable, false, pageable.getOffset() + content.size(), true);
+        }
+        if (countMode == CountMode.APPROXIMATE && filter.equals(VehicleFilterDTO.none())) {
+            OptionalLong estimate = vehicleRepo.estimateCount();
+            if (estimate.isPresent()) {
+                return slice(content, pageable, slice.hasNext(), estimate.getAsLong(), false);
+            }
+        }
+        long total = countCache.get(filter, () -> vehicleRepo.count(filterSpec(filter)));
+        return slice(content, pageable, slice.hasNext(), total, true);
+    }
+
+    private static SlicePageDTO<VehicleResponseDTO> slice(List<VehicleResponseDTO> content, Pageable pageable, boolean hasNext,
+                                                          Long total, Boolean exact) {
+        return new SlicePageDTO<>(content, pageable.getPageNumber(), pageable.getPageSize(), hasNext, total, total == null ? null : exact);
+    }
+
+    /**
+     * Listagem com apenas os campos pedidos (parâmetro 'fields'). No banco, só as colunas correspondentes são
+     * lidas, o vendedor só entra na consulta com vendorName e as fotos só são buscadas com photoUrls; listagens
+     * de disponíveis continuam vindo do VehicleCatalog, apenas recortadas.
+     */
+    public Page<Map<String, Object>> listVehicleFields(VehicleFilterDTO filter, Pageable pageable, VehicleFields fields) {
+        if (Boolean.FALSE.equals(filter.sold()) && catalog.isReady() && isIdDescending(pageable.getSort())) {
+            return catalog.query(filter, pageable).map(fields::toResponse);
+        }
+
+        Page<Map<String, Object>> page = vehicleRepo.findColumns(filterSpec(filter), pageable, fields.columns());
+        Map<Long, List<String>> photoUrls = fields.includes(VehicleFields.PHOTO_URLS)
+                ? findPhotoUrlsByIds(page.getContent().stream().map(row -> (Long) row.get("id")).toList())
+                : Map.of();
+        return page.map(row -> fields.toResponse(row, photoUrls.getOrDefault((Long) row.get("id"), List.of())));
+    }
+
+    /**
+     * Listagem com facetas: a página de veículos e as contagens por marca, tipo, cor, faixa de ano e
+     * faixa de preço, respeitando os mesmos filtros. Com sold=false as contagens vêm de uma varredura
+     * do VehicleCatalog; caso contrário, de uma única consulta agrupada no banco.
+     */
+    public VehicleFacetsDTO listVehiclesWithFacets(VehicleFilterDTO filter, Pageable pageable) {
+        if (Boolean.FALSE.equals(filter.sold()) && catalog.isReady() && isIdDescending(pageable.getSort())) {
+            return catalog.facets(filter, pageable);
+        }
+
+        VehicleFacetCounter counter = new VehicleFacetCounter();
+        for (VehicleRepo.FacetRow row : vehicleRepo.countFacets(filterSpec(filter), VehicleFacetCounter.PRICE_LIMITS)) {
+            counter.addBrand(row.brand(), row.count());
+            counter.addVehicleType(row.vehicleType(), row.count());
+            counter.addColor(row.color(), row.count());
+            counter.addYear(row.year(), row.count());
+            counter.addPriceBucket(row.priceBucket(), row.count());
+        }
+        return counter.toDto(listVehicles(filter, pageable));
+    }
+
+    /**
+     * Listagem paginada por cursor (keyset): busca os veículos com ID menor que o do cursor,
+     * sem OFFSET e sem COUNT, de modo que páginas profundas custam o mesmo que a primeira.
+     *
+     * @param after Cursor devolvido pela página anterior, ou vazio para a primeira página.
+     * @param size Quantidade máxima de veículos por página.
+     * @throws IllegalArgumentException Se o cursor for inválido.
+     */
+    public CursorPageDTO<VehicleResponseDTO> listVehiclesAfter(
+            VehicleFilterDTO filter,
+            String after,
+            int size
     ) {
+        if (size < 1) {
+            throw new IllegalArgumentException("O tamanho da página deve ser maior que zero.");
+        }
+
+        // Keyset: IDs abaixo do cursor, com o vendedor na mesma consulta (ver VehicleRepo.findSlice)
+        Specification<Vehicle> spec = filterSpec(filter);
+        if (!after.isBlank()) {
+            spec = spec.and(hasIdLessThan(decodeCursor(after)));
+        }
+        Slice<Vehicle> slice = vehicleRepo.findSlice(spec, PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "id")));
+
+        List<Vehicle> vehicles = slice.getContent();
+        Map<Long, List<String>> photoUrls = findPhotoUrls(vehicles);
+        List<VehicleResponseDTO> content = vehicles.stream()
+                .map(vehicle -> VehicleResponseDTO.fromEntity(
+                        vehicle,
+                        vehicle.getVendor(),
+                        photoUrls.getOrDefault(vehicle.getId(), List.of())
+                ))
+                .toList();
+
+        String nextCursor = slice.hasNext() ? encodeCursor(vehicles.get(vehicles.size() - 1).getId()) : null;
+        return new CursorPageDTO<>(content, size, nextCursor);
+    }
+
+    /**
+     * Busca textual por marca e modelo, ordenada por relevância. Os termos são resolvidos pelo
+     * VehicleSearchIndex (sem diferenciar maiúsculas e acentos) para igualdades sobre colunas indexadas;
+     * um termo que o índice ainda não conhece é buscado com {@code LIKE}.
+     *
+     * @param q O texto da busca (ex: "citroen c3").
+     * @throws IllegalArgumentException Se a busca não tiver nenhum termo.
+     */
+    public Page<VehicleResponseDTO> searchVehicles(String q, int page, int size) {
+        List<VehicleSearchIndex.TermMatches> terms = searchIndex.match(q);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um termo para a busca.");
+        }
+
+        // Sem ordenação no Pageable: a ordem por relevância vem da própria Specification
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Vehicle> result = vehicleRepo.findAll(matchesSearch(terms), pageable);
+        Map<Long, List<String>> photoUrls = findPhotoUrls(result.getContent());
+        return result.map(vehicle -> VehicleResponseDTO.fromEntity(
+                vehicle,
+                vehicle.getVendor(),
+                photoUrls.getOrDefault(vehicle.getId(), List.of())
+        ));
+    }
+
+    private Specification<Vehicle> filterSpec(VehicleFilterDTO filter) {
         Specification<Vehicle> spec = Specification.where(null);
 
-        if (brand.isPresent()) {
-            spec = spec.and(hasBrand(brand.get()));
+        if (filter.hasBrand()) {
+            spec = spec.and(hasBrandIn(searchIndex.matchingBrands(filter.brand()), filter.brand()));
+        }
+        if (filter.hasModel()) {
+            spec = spec.and(hasModelIn(searchIndex.matchingModels(filter.model()), filter.model()));
+        }
+        if (filter.year() != null) {
+            spec = spec.and(hasYear(filter.year()));
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            spec = spec.and(hasPriceBetween(filter.minPrice(), filter.maxPrice()));
         }
-        if (model.isPresent()) {
-            spec = spec.and(hasModel(model.get()));
+        if (filter.hasVehicleType()) {
+            spec = spec.and(hasVehicleType(filter.vehicleType()));
         }
-        if (year.isPresent()) {
-            spec = spec.and(hasYear(year.get()));
+        if (filter.hasColor()) {
+            spec = spec.and(hasColor(filter.color()));
         }
+        if (filter.sold() != null) {
+            spec = spec.and(isSold(filter.sold()));
+        }
+        return spec;
+    }
+
+    private static boolean isIdDescending(Sort sort) {
+        return sort.equals(Sort.by(Sort.Direction.DESC, "id"));
+    }
+
+    // O cursor é opaco para o cliente; hoje carrega apenas o último ID entregue
+    private static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("id:")) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+            return Long.valueOf(decoded.substring(3));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.", e);
+        }
+    }
 
-        Page<Vehicle> page = vehicleRepo.findAll(spec, pageable);
-        return page.map(vehicle -> VehicleResponseDTO.fromEntity(vehicle, vehicle.getVendor()));
+    // Fotos de um conjunto de veículos, agrupadas por ID do veículo, em uma única consulta
+    private Map<Long, List<String>> findPhotoUrls(List<Vehicle> vehicles) {
+        return findPhotoUrlsByIds(vehicles.stream().map(Vehicle::getId).toList());
+    }
+
+    private Map<Long, List<String>> findPhotoUrlsByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return vehicleRepo.findPhotoUrlsByVehicleIds(ids).stream()
+                .collect(Collectors.groupingBy(
+                        VehicleRepo.PhotoUrl::getVehicleId,
+                        Collectors.mapping(VehicleRepo.PhotoUrl::getUrl, Collectors.toList())
+                ));
     }
 
     public Vehicle findById(Long id) {
@@ -83,16 +324,88 @@ public class VehicleService {
                 .orElseThrow(() -> new EntityNotFoundException("Veículo não encontrado"));
     }
 
+    /**
+     * Versão do conjunto de veículos listados; muda a cada alteração de qualquer veículo (ver VehicleCatalog.version).
+     */
+    public String listingVersion() {
+        return catalog.version();
+    }
+
+    /**
+     * Carrega o veículo com vendedor e fotos, junto com a versão que esse estado representa. Cargas
+     * simultâneas do mesmo veículo são agrupadas em uma só (ver SingleFlight); cada carga abre sua
+     * própria transação, fora da espera das demais.
+     *
+     * @throws EntityNotFoundException Se o veículo não existir.
+     */
+    public VersionedVehicle getVersionedVehicle(Long id) {
+        return singleFlight.execute("vehicle.detail", id, () -> readOnlyTransaction.execute(status -> {
+            Vehicle vehicle = findById(id);
+            return new VersionedVehicle(vehicle.getVersion(), VehicleResponseDTO.fromEntity(vehicle, vehicle.getVendor()));
+        }));
+    }
+
+    public record VersionedVehicle(long version, VehicleResponseDTO vehicle) {}
+
+    /**
+     * Vários veículos pelos seus IDs: por bloco de IDs (ver BatchLookup), uma consulta para os veículos com
+     * seus vendedores e outra para as fotos.
+     *
+     * @throws IllegalArgumentException Se a lista de IDs for vazia ou longa demais.
+     */
+    @Transactional(readOnly = true)
+    public BatchDTO<VehicleResponseDTO> findByIds(List<Long> ids) {
+        return BatchLookup.resolve(ids, chunk -> {
+            List<Vehicle> vehicles = vehicleRepo.findByIdIn(chunk);
+            Map<Long, List<String>> photoUrls = findPhotoUrls(vehicles);
+            return vehicles.stream()
+                    .map(vehicle -> VehicleResponseDTO.fromEntity(
+                            vehicle,
+                            vehicle.getVendor(),
+                            photoUrls.getOrDefault(vehicle.getId(), List.of())
+                    ))
+                    .toList();
+        }, VehicleResponseDTO::id);
+    }
+
+    /**
+     * Um veículo com apenas os campos pedidos (ver listVehicleFields), junto com a versão que esse estado representa.
+     *
+     * @throws EntityNotFoundException Se o veículo não existir.
+     */
+    @Transactional(readOnly = true)
+    public VersionedFields getVehicleFields(Long id, VehicleFields fields) {
+        Map<String, Object> row = vehicleRepo.findColumnsById(id, fields.columns("version"))
+                .orElseThrow(() -> new EntityNotFoundException("Veículo não encontrado"));
+        List<String> photoUrls = fields.includes(VehicleFields.PHOTO_URLS)
+                ? findPhotoUrlsByIds(List.of(id)).getOrDefault(id, List.of())
+                : List.of();
+        return new VersionedFields((Long) row.get("version"), fields.toResponse(row, photoUrls));
+    }
+
+    public record VersionedFields(long version, Map<String, Object> vehicle) {}
+
+    /**
+     * Versão atual do veículo, sem carregá-lo (usada para responder 304 a GETs condicionais).
+     */
+    public Optional<Long> findVersion(Long id) {
+        return vehicleRepo.findVersionById(id);
+    }
+
     // Update parcial - Veículo vendido
+    @Transactional
     public VehicleResponseDTO markAsSold(Long vehicleId) {
         Vehicle vehicle = vehicleRepo.findById(vehicleId)
                 .orElseThrow(() -> new EntityNotFoundException("Veículo não encontrado"));
         vehicle.setSold(true);
         Vehicle saved = vehicleRepo.save(vehicle);
-        return VehicleResponseDTO.fromEntity(saved, saved.getVendor());
+        VehicleResponseDTO response = VehicleResponseDTO.fromEntity(saved, saved.getVendor());
+        eventPublisher.publishEvent(VehicleChangedEvent.saved(response));
+        return response;
     }
 
     // Update completo
+    @Transactional
     public VehicleResponseDTO updateVehicle(Long id, VehicleRequestDTO dto) {
         Vehicle vehicle = vehicleRepo.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Veículo não encotnrado"));
@@ -106,16 +419,38 @@ public class VehicleService {
         vehicle.setPhotoUrls(dto.photoUrls());
 
         Vehicle saved = vehicleRepo.save(vehicle);
+        VehicleResponseDTO response = VehicleResponseDTO.fromEntity(saved, saved.getVendor());
+        eventPublisher.publishEvent(VehicleChangedEvent.saved(response));
+        return response;
+    }
 
-        return VehicleResponseDTO.fromEntity(saved, saved.getVendor());
+    /**
+     * Após a troca do nome de um vendedor, que faz parte da representação de cada veículo dele: incrementa a
+     * versão dos veículos (invalidando os ETags) e publica um VehicleChangedEvent por veículo, que atualiza o
+     * catálogo em memória, a versão da listagem e os caches.
+     */
+    @Transactional
+    public void republishVendorVehicles(Long vendorId) {
+        vehicleRepo.incrementVersionByVendorId(vendorId);
+        List<Vehicle> vehicles = vehicleRepo.findByVendorId(vendorId);
+        Map<Long, List<String>> photoUrls = findPhotoUrls(vehicles);
+        vehicles.forEach(vehicle -> eventPublisher.publishEvent(VehicleChangedEvent.saved(VehicleResponseDTO.fromEntity(
+                vehicle,
+                vehicle.getVendor(),
+                photoUrls.getOrDefault(vehicle.getId(), List.of())
+        ))));
     }
 
     // Delete
+    @Transactional
     public void deleteVehicle(Long id) {
         if (!vehicleRepo.existsById(id)) {
             throw new EntityNotFoundException("Veículo não encontrado");
         }
+        // Na mesma transação; os contadores de favoritos saem pelo VehicleChangedEvent (ver FavoriteCounts)
+        userRepo.deleteFavoritesOfVehicle(id);
         vehicleRepo.deleteById(id);
+        eventPublisher.publishEvent(VehicleChangedEvent.deleted(id));
     }
 
 
@@ -1,19 +1,117 @@
 package br.com.autofacil.api.services;
 
 import br.com.autofacil.api.models.Vehicle;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 public class VehicleSpecifications {
 
-    public static Specification<Vehicle> hasBrand(String brand) {
-        return (root, query, builder) -> builder.like(builder.lower(root.get("brand")), "%" + brand.toLowerCase() + "%");
+    /**
+     * Marca igual a um dos valores resolvidos pelo VehicleSearchIndex (usa o índice de 'brand').
+     * Se o índice não conhece nenhum valor compatível (ex: veículo gravado por outra instância desde
+     * o último refresh), recai no {@code LIKE} sem diferenciar maiúsculas sobre o texto informado.
+     */
+    public static Specification<Vehicle> hasBrandIn(Collection<String> brands, String brand) {
+        return (root, query, builder) -> brands.isEmpty() ? containsIgnoreCase(root.get("brand"), brand, builder) : root.get("brand").in(brands);
     }
 
-    public static Specification<Vehicle> hasModel(String model) {
-        return (root, query, builder) -> builder.like(builder.lower(root.get("model")), "%" + model.toLowerCase() + "%");
+    // Modelo igual a um dos valores resolvidos pelo VehicleSearchIndex, com o mesmo fallback de hasBrandIn
+    public static Specification<Vehicle> hasModelIn(Collection<String> models, String model) {
+        return (root, query, builder) -> models.isEmpty() ? containsIgnoreCase(root.get("model"), model, builder) : root.get("model").in(models);
     }
 
     public static Specification<Vehicle> hasYear(Integer year) {
         return (root, query, builder) -> builder.equal(root.get("year"), year);
     }
+
+    // Faixa de preço inclusiva; qualquer um dos limites pode ser omitido
+    public static Specification<Vehicle> hasPriceBetween(BigDecimal min, BigDecimal max) {
+        return (root, query, builder) -> {
+            Path<BigDecimal> price = root.get("price");
+            if (min != null && max != null) {
+                return builder.between(price, min, max);
+            }
+            return min != null ? builder.greaterThanOrEqualTo(price, min) : builder.lessThanOrEqualTo(price, max);
+        };
+    }
+
+    public static Specification<Vehicle> hasVehicleType(String vehicleType) {
+        return equalsIgnoreCase("vehicleType", vehicleType);
+    }
+
+    public static Specification<Vehicle> hasColor(String color) {
+        return equalsIgnoreCase("color", color);
+    }
+
+    public static Specification<Vehicle> isSold(boolean sold) {
+        return (root, query, builder) -> builder.equal(root.get("sold"), sold);
+    }
+
+    // Posição do cursor na paginação por keyset (IDs decrescentes)
+    public static Specification<Vehicle> hasIdLessThan(Long id) {
+        return (root, query, builder) -> builder.lessThan(root.get("id"), id);
+    }
+
+    /**
+     * Todos os termos da busca devem casar com a marca ou com o modelo. Um termo sem nenhum valor
+     * compatível no índice recai no {@code LIKE} sobre marca e modelo, como em hasBrandIn. Na consulta
+     * principal (não na contagem), ordena pela relevância somada de marca e modelo e depois pelo ID.
+     */
+    public static Specification<Vehicle> matchesSearch(List<VehicleSearchIndex.TermMatches> terms) {
+        return (root, query, builder) -> {
+            Predicate[] perTerm = terms.stream()
+                    .map(term -> term.isEmpty()
+                            ? builder.or(
+                                    containsIgnoreCase(root.get("brand"), term.term(), builder),
+                                    containsIgnoreCase(root.get("model"), term.term(), builder))
+                            : builder.or(
+                                    in(root.get("brand"), term.brands().keySet(), builder),
+                                    in(root.get("model"), term.models().keySet(), builder)))
+                    .toArray(Predicate[]::new);
+
+            if (Vehicle.class.equals(query.getResultType())) {
+                Expression<Integer> relevance = builder.sum(
+                        score(root.get("brand"), terms.stream().map(VehicleSearchIndex.TermMatches::brands).toList(), builder),
+                        score(root.get("model"), terms.stream().map(VehicleSearchIndex.TermMatches::models).toList(), builder)
+                );
+                query.orderBy(builder.desc(relevance), builder.desc(root.get("id")));
+            }
+            return builder.and(perTerm);
+        };
+    }
+
+    private static Specification<Vehicle> equalsIgnoreCase(String attribute, String value) {
+        return (root, query, builder) -> builder.equal(builder.lower(root.get(attribute)), value.toLowerCase(Locale.ROOT));
+    }
+
+    private static Predicate containsIgnoreCase(Path<String> path, String value, CriteriaBuilder builder) {
+        return builder.like(builder.lower(path), "%" + value.toLowerCase(Locale.ROOT) + "%");
+    }
+
+    private static Predicate in(Path<String> path, Collection<String> values, CriteriaBuilder builder) {
+        return values.isEmpty() ? builder.disjunction() : path.in(values);
+    }
+
+    // CASE <coluna> WHEN <valor> THEN <pontuação somada dos termos> ... ELSE 0 END
+    private static Expression<Integer> score(Path<String> path, List<Map<String, Integer>> perTerm, CriteriaBuilder builder) {
+        Map<String, Integer> total = new HashMap<>();
+        perTerm.forEach(scores -> scores.forEach((value, score) -> total.merge(value, score, Integer::sum)));
+
+        if (total.isEmpty()) {
+            return builder.literal(0);
+        }
+        CriteriaBuilder.SimpleCase<String, Integer> score = builder.selectCase(path);
+        total.forEach(score::when);
+        return score.otherwise(0);
+    }
 }
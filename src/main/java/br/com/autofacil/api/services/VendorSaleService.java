@@ -1,7 +1,11 @@
 package br.com.autofacil.api.services;
 
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.dtos.vendorsale.VendorSaleFilterDTO;
 import br.com.autofacil.api.dtos.vendorsale.VendorSaleRequestDTO;
 import br.com.autofacil.api.dtos.vendorsale.VendorSaleResponseDTO;
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import br.com.autofacil.api.exceptions.ConflictException;
 import br.com.autofacil.api.models.User;
 import br.com.autofacil.api.models.Vehicle;
 import br.com.autofacil.api.models.VendorSale;
@@ -11,11 +15,14 @@ import br.com.autofacil.api.repositories.VendorSaleRepo;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +30,9 @@ public class VendorSaleService {
     private final VendorSaleRepo vendorSaleRepo;
     private final VehicleRepo vehicleRepo;
     private final UserRepo userRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Set<String> SORTABLE = Set.of("id", "saleDate", "price");
 
     /**
      * Registra uma nova venda de veículo.
@@ -32,7 +42,9 @@ public class VendorSaleService {
      * @return O DTO de resposta da venda registrada.
      * @throws EntityNotFoundException Se o veículo ou o comprador não forem encontrados.
      * @throws SecurityException Se o vendedor não for o proprietário do veículo.
-     * @throws IllegalStateException Se o veículo já tiver sido vendido.
+     * @throws ConflictException Se o veículo já tiver sido vendido.
+     * @throws org.springframework.dao.OptimisticLockingFailureException Se o veículo for alterado por outra
+     *         transação antes do commit (a chamada pode ser repetida pelo ConflictRetry).
      */
     @Transactional
     public VendorSaleResponseDTO registerSale(VendorSaleRequestDTO dto, User vendor) {
@@ -50,16 +62,19 @@ public class VendorSaleService {
         }
 
         if (vehicle.isSold()) {
-            throw new IllegalStateException("Veículo com ID " + dto.vehicleId() + " já foi vendido.");
+            throw new ConflictException("Veículo com ID " + dto.vehicleId() + " já foi vendido.");
         }
 
         // Fetch buyer by id
         User buyer = userRepo.findById(dto.buyerId())
                 .orElseThrow(() -> new EntityNotFoundException("Comprador com ID " + dto.buyerId() + " não encontrado."));
 
-        // Update vehicle status to 'sold'.
+        // Update vehicle status to 'sold'. O UPDATE com @Version vai ao banco já aqui, antes do INSERT da venda
+        // (IDENTITY, imediato): numa disputa, a perdedora falha no bloqueio otimista e é repetida pelo
+        // ConflictRetry, em vez de esbarrar na restrição unique_vehicle_sale
         vehicle.setSold(true);
-        vehicleRepo.save(vehicle);
+        vehicleRepo.saveAndFlush(vehicle);
+        eventPublisher.publishEvent(VehicleChangedEvent.saved(VehicleResponseDTO.fromEntity(vehicle, vehicle.getVendor())));
 
         // Create a new sale
         VendorSale sale = new VendorSale();
@@ -76,14 +91,16 @@ public class VendorSaleService {
     }
 
     /**
-     * Retorna uma lista de todas as vendas registradas.
+     * Retorna uma página de vendas, filtrada e ordenada.
      *
-     * @return Uma lista de DTOs de resposta de vendas.
+     * @param filter Os filtros opcionais (vendedor, comprador, período e faixa de preço).
+     * @param sortBy A propriedade de ordenação: id, saleDate ou price.
+     * @return Uma página de DTOs de resposta de vendas.
+     * @throws IllegalArgumentException Se a paginação ou a ordenação forem inválidas.
      */
-    public List<VendorSaleResponseDTO> getAllSales() {
-        return vendorSaleRepo.findAll().stream()
-                .map(VendorSaleResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+    public Page<VendorSaleResponseDTO> listSales(VendorSaleFilterDTO filter, int page, int size, String sortBy, Sort.Direction direction) {
+        Pageable pageable = Pagination.of(page, size, sortBy, direction, SORTABLE);
+        return vendorSaleRepo.findPage(filter, pageable);
     }
 
     /**
@@ -148,6 +165,7 @@ public class VendorSaleService {
         if (vehicle != null) {
             vehicle.setSold(false);
             vehicleRepo.save(vehicle);
+            eventPublisher.publishEvent(VehicleChangedEvent.saved(VehicleResponseDTO.fromEntity(vehicle, vehicle.getVendor())));
         }
 
         vendorSaleRepo.delete(saleToDelete);
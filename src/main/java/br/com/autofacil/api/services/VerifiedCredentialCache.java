@@ -0,0 +1,100 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Cache limitado (tamanho e TTL) de credenciais verificadas recentemente.
+ *
+ * A chave é um HMAC-SHA256 de email + senha calculado com um segredo aleatório gerado na subida
+ * da aplicação, de modo que nem a senha em texto puro nem um hash reutilizável fora deste processo
+ * ficam em memória. Apenas verificações bem-sucedidas são armazenadas.
+ */
+@Component
+public class VerifiedCredentialCache {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, VerifiedUser> cache;
+    private final SecretKeySpec key;
+
+    public VerifiedCredentialCache(
+            @Value("${autofacil.auth.credential-cache.ttl:5m}") Duration ttl,
+            @Value("${autofacil.auth.credential-cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.credentials");
+    }
+
+    /**
+     * Busca um usuário cujas credenciais já foram verificadas.
+     *
+     * @return Uma cópia desanexada do usuário, ou vazio se as credenciais não estiverem no cache.
+     */
+    public Optional<User> get(String email, String password) {
+        if (email == null || password == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(keyOf(email, password)))
+                .map(VerifiedUser::toUser);
+    }
+
+    public void put(String email, String password, User user) {
+        if (email == null || password == null) {
+            return;
+        }
+        cache.put(keyOf(email, password), new VerifiedUser(user.getId(), user.getName(), user.getEmail(), user.getRole()));
+    }
+
+    /**
+     * Remove todas as entradas de um usuário (ex: após atualização ou exclusão do cadastro).
+     */
+    public void invalidateUser(Long userId) {
+        cache.asMap().values().removeIf(verified -> verified.id().equals(userId));
+    }
+
+    private String keyOf(String email, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(email.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC indisponível para o cache de credenciais.", e);
+        }
+    }
+
+    // Snapshot imutável: nunca compartilhamos a mesma instância de entidade entre requisições
+    private record VerifiedUser(Long id, String name, String email, UserRole role) {
+        User toUser() {
+            return User.builder()
+                    .id(id)
+                    .name(name)
+                    .email(email)
+                    .role(role)
+                    .build();
+        }
+    }
+}
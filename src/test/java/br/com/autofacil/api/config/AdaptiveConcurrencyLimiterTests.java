@@ -0,0 +1,84 @@
+package br.com.autofacil.api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTests {
+
+	private static final long FAST = Duration.ofMillis(10).toNanos();
+	private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+	@Test
+	void rejectsAboveTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, Duration.ofMillis(100));
+
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(2, limiter.getInFlight());
+	}
+
+	@Test
+	void slowResponsesShrinkTheLimitDownToTheMinimum() {
+		AtomicLong clock = new AtomicLong();
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, Duration.ofMillis(100), clock::get);
+
+		// Requisições lentas em sequência: cada uma começa depois da redução causada pela anterior
+		for (int i = 0; i < 50; i++) {
+			assertTrue(limiter.tryAcquire());
+			clock.addAndGet(SLOW);
+			limiter.release(SLOW);
+		}
+
+		assertEquals(4, limiter.getLimit());
+	}
+
+	@Test
+	void slowRequestsThatRanTogetherShrinkTheLimitOnce() {
+		AtomicLong clock = new AtomicLong();
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, Duration.ofMillis(100), clock::get);
+
+		for (int i = 0; i < 20; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+		clock.addAndGet(SLOW);
+		for (int i = 0; i < 20; i++) {
+			limiter.release(SLOW);
+		}
+		assertEquals(18, limiter.getLimit());
+
+		// Uma requisição iniciada depois da redução volta a contar
+		assertTrue(limiter.tryAcquire());
+		clock.addAndGet(SLOW);
+		limiter.release(SLOW);
+		assertEquals(16, limiter.getLimit());
+	}
+
+	@Test
+	void growsOnlyWhileTheLimitIsBeingUsed() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 100, Duration.ofMillis(100));
+
+		// Uma requisição por vez: carga bem abaixo do limite, que não deve crescer
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire();
+			limiter.release(FAST);
+		}
+		assertEquals(4, limiter.getLimit());
+
+		// Limite inteiramente ocupado e respostas rápidas: cresce
+		for (int round = 0; round < 20; round++) {
+			int acquired = 0;
+			while (limiter.tryAcquire()) {
+				acquired++;
+			}
+			for (int i = 0; i < acquired; i++) {
+				limiter.release(FAST);
+			}
+		}
+		assertTrue(limiter.getLimit() > 4);
+	}
+}
@@ -0,0 +1,47 @@
+package br.com.autofacil.api.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkheadDataSourceTests {
+
+	@Test
+	void failsFastWhenAllConnectionsAreInUseAndReleasesOnClose() throws Exception {
+		DataSource target = mock(DataSource.class);
+		Connection physical = mock(Connection.class);
+		when(target.getConnection()).thenReturn(physical);
+		BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, Duration.ofMillis(10));
+
+		Connection first = bulkhead.getConnection();
+		assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+
+		first.close();
+		first.close();
+		assertEquals(1, bulkhead.getAvailablePermits());
+		verify(physical, times(1)).close();
+
+		bulkhead.getConnection().close();
+		assertEquals(1, bulkhead.getAvailablePermits());
+	}
+
+	@Test
+	void failureToOpenAConnectionReturnsThePermit() throws Exception {
+		DataSource target = mock(DataSource.class);
+		when(target.getConnection()).thenThrow(new SQLException("banco fora do ar"));
+		BulkheadDataSource bulkhead = new BulkheadDataSource(target, 2, Duration.ofMillis(10));
+
+		assertThrows(SQLException.class, bulkhead::getConnection);
+		assertEquals(2, bulkhead.getAvailablePermits());
+	}
+}
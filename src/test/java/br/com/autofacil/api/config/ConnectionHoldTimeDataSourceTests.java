@@ -0,0 +1,66 @@
+package br.com.autofacil.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionHoldTimeDataSourceTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void recordsTheHoldTimeOncePerConnectionUnderTheRoutePattern() throws Exception {
+		DataSource target = mock(DataSource.class);
+		Connection physical = mock(Connection.class);
+		when(target.getConnection()).thenReturn(physical);
+		ConnectionHoldTimeDataSource dataSource = new ConnectionHoldTimeDataSource(target, () -> meterRegistry);
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/vehicles/7");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/vehicles/{id}");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		Connection connection = dataSource.getConnection();
+		connection.isReadOnly();
+		connection.close();
+		connection.close();
+
+		verify(physical).isReadOnly();
+		verify(physical, times(1)).close();
+		Timer timer = meterRegistry.get(ConnectionHoldTimeDataSource.METRIC)
+				.tag("method", "GET")
+				.tag("uri", "/vehicles/{id}")
+				.timer();
+		assertEquals(1, timer.count());
+	}
+
+	@Test
+	void connectionsOutsideRequestsAreTaggedAsNone() throws Exception {
+		DataSource target = mock(DataSource.class);
+		when(target.getConnection()).thenReturn(mock(Connection.class));
+		ConnectionHoldTimeDataSource dataSource = new ConnectionHoldTimeDataSource(target, () -> meterRegistry);
+
+		dataSource.getConnection().close();
+
+		assertEquals(1, meterRegistry.get(ConnectionHoldTimeDataSource.METRIC).tag("uri", "none").timer().count());
+	}
+}
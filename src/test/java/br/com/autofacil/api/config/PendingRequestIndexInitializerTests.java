@@ -0,0 +1,83 @@
+package br.com.autofacil.api.config;
+
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.repositories.UserRepo;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PendingRequestIndexInitializerTests {
+
+	@Autowired
+	private PendingRequestIndexInitializer initializer;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private VehicleRepo vehicleRepo;
+
+	private User vendor;
+	private User buyer;
+	private Vehicle vehicle;
+
+	@BeforeEach
+	void setUp() {
+		vendor = userRepo.save(User.builder().name("Loja").email("loja@indice.test").passwordHash("x").role(UserRole.VENDOR).build());
+		buyer = userRepo.save(User.builder().name("Cliente").email("cliente@indice.test").passwordHash("x").role(UserRole.BUYER).build());
+		vehicle = vehicleRepo.save(Vehicle.builder()
+				.brand("Fiat").model("Uno").year(2010).color("Branco").price(BigDecimal.valueOf(15000)).vehicleType("Hatch")
+				.vendor(vendor)
+				.build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM purchase_request WHERE vehicle_id = ?", vehicle.getId());
+		// Os demais testes dependem do índice
+		initializer.createIndex();
+		vehicleRepo.delete(vehicle);
+		userRepo.deleteAll(List.of(buyer, vendor));
+	}
+
+	@Test
+	void duplicatePendingRequestsStopTheStartupWithoutChangingThem() {
+		// Banco antigo, sem o índice e com duas solicitações pendentes para o mesmo veículo
+		jdbcTemplate.execute("DROP INDEX " + PendingRequestIndexInitializer.INDEX_NAME);
+		insertPending();
+		insertPending();
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM purchase_request WHERE vehicle_id = ? ORDER BY id", Long.class, vehicle.getId());
+
+		IllegalStateException failure = assertThrows(IllegalStateException.class, initializer::createIndex);
+
+		assertTrue(failure.getMessage().contains("[" + ids.get(1) + "]"), failure.getMessage());
+		assertEquals(List.of("PENDING", "PENDING"), jdbcTemplate.queryForList(
+				"SELECT status FROM purchase_request WHERE vehicle_id = ? ORDER BY id", String.class, vehicle.getId()));
+
+		// Depois da migração, a subida cria o índice
+		jdbcTemplate.update("UPDATE purchase_request SET status = 'DENIED' WHERE id = ?", ids.get(1));
+		initializer.createIndex();
+		assertThrows(DataIntegrityViolationException.class, this::insertPending);
+	}
+
+	private void insertPending() {
+		jdbcTemplate.update("INSERT INTO purchase_request (vehicle_id, buyer_id, vendor_id, request_date, status, version) " +
+				"VALUES (?, ?, ?, CURRENT_TIMESTAMP, 'PENDING', 0)", vehicle.getId(), buyer.getId(), vendor.getId());
+	}
+}
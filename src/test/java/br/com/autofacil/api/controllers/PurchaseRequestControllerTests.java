@@ -0,0 +1,103 @@
+package br.com.autofacil.api.controllers;
+
+import br.com.autofacil.api.models.PurchaseRequest;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.repositories.PurchaseRequestRepo;
+import br.com.autofacil.api.repositories.UserRepo;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import br.com.autofacil.api.services.TokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A exportação de solicitações de compra exige o token de um vendedor e traz só as solicitações recebidas por ele.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PurchaseRequestControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private VehicleRepo vehicleRepo;
+
+	@Autowired
+	private PurchaseRequestRepo purchaseRequestRepo;
+
+	@Autowired
+	private TokenService tokenService;
+
+	private final List<User> users = new ArrayList<>();
+	private final List<Vehicle> vehicles = new ArrayList<>();
+	private final List<PurchaseRequest> requests = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		User buyer = save(User.builder().name("Cliente").email("cliente@exportacao.test").passwordHash("x").role(UserRole.BUYER).build());
+		for (int v = 0; v < 2; v++) {
+			User vendor = save(User.builder().name("Loja " + v).email("loja" + v + "@exportacao.test").passwordHash("x").role(UserRole.VENDOR).build());
+			Vehicle vehicle = vehicleRepo.save(Vehicle.builder()
+					.brand("Fiat").model("Uno").year(2010).color("Branco").price(BigDecimal.valueOf(15000)).vehicleType("Hatch")
+					.vendor(vendor)
+					.build());
+			vehicles.add(vehicle);
+			requests.add(purchaseRequestRepo.save(new PurchaseRequest(vehicle, buyer, vendor)));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		purchaseRequestRepo.deleteAll(requests);
+		vehicleRepo.deleteAll(vehicles);
+		userRepo.deleteAll(users);
+	}
+
+	@Test
+	void exportRequiresAVendorTokenAndOnlyIncludesThatVendorsRequests() throws Exception {
+		mockMvc.perform(get("/purchase-requests/export"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/purchase-requests/export").header(HttpHeaders.AUTHORIZATION, bearer(users.get(0))))
+				.andExpect(status().isUnauthorized());
+
+		User vendor = users.get(1);
+		String ndjson = mockMvc.perform(get("/purchase-requests/export").header(HttpHeaders.AUTHORIZATION, bearer(vendor)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		List<String> lines = ndjson.lines().toList();
+		assertEquals(1, lines.size(), ndjson);
+		assertTrue(lines.get(0).contains("\"id\":" + requests.get(0).getId() + ","), ndjson);
+		assertTrue(lines.get(0).contains("\"vendorId\":" + vendor.getId() + ","), ndjson);
+	}
+
+	private User save(User user) {
+		User saved = userRepo.save(user);
+		users.add(saved);
+		return saved;
+	}
+
+	private String bearer(User user) {
+		return "Bearer " + tokenService.issue(user).token();
+	}
+}
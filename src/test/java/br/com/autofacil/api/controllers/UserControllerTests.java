@@ -0,0 +1,86 @@
+package br.com.autofacil.api.controllers;
+
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.repositories.UserRepo;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import br.com.autofacil.api.services.VehicleCatalog;
+import br.com.autofacil.api.services.VehicleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Alterações de usuário que aparecem na representação dos veículos (nome do vendedor) chegam às listagens.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private VehicleRepo vehicleRepo;
+
+	@Autowired
+	private VehicleService vehicleService;
+
+	@Autowired
+	private VehicleCatalog catalog;
+
+	private User vendor;
+	private Vehicle vehicle;
+
+	@BeforeEach
+	void setUp() {
+		vendor = userRepo.save(User.builder().name("Loja Antiga").email("loja@renomeada.test").passwordHash("x").role(UserRole.VENDOR).build());
+		vehicle = vehicleRepo.save(Vehicle.builder()
+				.brand("Renomeada").model("Uno").year(2010).color("Branco").price(BigDecimal.valueOf(15000)).vehicleType("Hatch")
+				.photoUrls(List.of())
+				.vendor(vendor)
+				.build());
+		// Gravado direto no repositório, sem o evento que alimenta o catálogo
+		catalog.rebuild();
+	}
+
+	@AfterEach
+	void tearDown() {
+		vehicleService.deleteVehicle(vehicle.getId());
+		userRepo.delete(vendor);
+	}
+
+	@Test
+	void renamingAVendorChangesTheListingEtagAndTheCatalogedName() throws Exception {
+		String etag = mockMvc.perform(get("/vehicles").param("sold", "false").param("brand", "Renomeada"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].vendorName").value("Loja Antiga"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(put("/users/{id}", vendor.getId()).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\":\"Loja Nova\",\"email\":\"loja@renomeada.test\"}"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/vehicles").param("sold", "false").param("brand", "Renomeada").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].vendorName").value("Loja Nova"));
+	}
+}
@@ -0,0 +1,290 @@
+package br.com.autofacil.api.controllers;
+
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.repositories.UserRepo;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Garante que a listagem de veículos usa um número fixo de instruções SQL,
+ * independentemente do tamanho da página (sem N+1 para vendedor e fotos), e que um GET
+ * condicional ou repetido de um veículo inalterado não carrega o veículo. A listagem em fatias dispensa
+ * a contagem, ou a executa uma vez por filtro, e a busca em lote resolve vários IDs com uma consulta por tipo.
+ * Os corpos com e sem gzip de um veículo têm ETags próprios, e qualquer um deles revalida a versão atual.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class VehicleControllerQueryCountTests {
+
+	// página + contagem + fotos em lote
+	private static final long MAX_STATEMENTS_PER_LISTING = 3;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private VehicleRepo vehicleRepo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final List<Vehicle> vehicles = new ArrayList<>();
+	private final List<User> vendors = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		for (int v = 0; v < 3; v++) {
+			User vendor = userRepo.save(User.builder()
+					.name("Vendedor " + v)
+					.email("vendedor" + v + "@querycount.test")
+					.passwordHash("x")
+					.role(UserRole.VENDOR)
+					.build());
+			vendors.add(vendor);
+
+			for (int i = 0; i < 10; i++) {
+				vehicles.add(vehicleRepo.save(Vehicle.builder()
+						.brand("Marca" + v)
+						.model("Modelo" + i)
+						.year(2020)
+						.color("Preto")
+						.price(BigDecimal.valueOf(50000 + i))
+						.vehicleType("Hatch")
+						.photoUrls(List.of("https://fotos/" + v + "/" + i + "/1.jpg", "https://fotos/" + v + "/" + i + "/2.jpg"))
+						.vendor(vendor)
+						.build()));
+			}
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		vehicleRepo.deleteAll(vehicles);
+		userRepo.deleteAll(vendors);
+	}
+
+	@Test
+	void listingUsesFixedNumberOfStatementsRegardlessOfPageSize() throws Exception {
+		for (int size : new int[]{5, 10, 25}) {
+			Statistics statistics = statistics();
+			statistics.clear();
+
+			mockMvc.perform(get("/vehicles").param("size", String.valueOf(size)).param("page", "1"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.content[0].vendorName").exists())
+					.andExpect(jsonPath("$.content[0].photoUrls.length()").value(2));
+
+			long statements = statistics.getPrepareStatementCount();
+			assertTrue(statements <= MAX_STATEMENTS_PER_LISTING,
+					"GET /vehicles?size=" + size + " executou " + statements + " instruções SQL");
+		}
+	}
+
+	@Test
+	void cursorPagesCarryTheVendorWithoutLazyLoading() throws Exception {
+		Statistics statistics = statistics();
+		statistics.clear();
+
+		String firstPage = mockMvc.perform(get("/vehicles").param("after", "").param("size", "4"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()").value(4))
+				.andExpect(jsonPath("$.content[0].vendorName").value("Vendedor 2"))
+				.andReturn().getResponse().getContentAsString();
+		// página com vendedores + fotos em lote
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		mockMvc.perform(get("/vehicles").param("after", JsonPath.<String>read(firstPage, "$.nextCursor")).param("size", "4"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].id").value(vehicles.get(vehicles.size() - 5).getId()));
+	}
+
+	@Test
+	void sliceListingSkipsTheCountAndCachesTheTotal() throws Exception {
+		Statistics statistics = statistics();
+		statistics.clear();
+
+		mockMvc.perform(get("/vehicles").param("brand", "Marca0").param("size", "5").param("count", "none"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()").value(5))
+				.andExpect(jsonPath("$.hasNext").value(true))
+				.andExpect(jsonPath("$.totalElements").doesNotExist());
+		// fatia + fotos em lote
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		for (int call = 0; call < 2; call++) {
+			statistics.clear();
+			mockMvc.perform(get("/vehicles").param("brand", "Marca0").param("size", "5").param("count", "exact"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.totalElements").value(10))
+					.andExpect(jsonPath("$.totalExact").value(true));
+			// A contagem só é executada na primeira chamada
+			assertEquals(call == 0 ? 3 : 2, statistics.getPrepareStatementCount());
+		}
+	}
+
+	@Test
+	void sparseFieldsetsReadOnlyTheRequestedColumns() throws Exception {
+		Statistics statistics = statistics();
+		statistics.clear();
+
+		mockMvc.perform(get("/vehicles").param("fields", "price,id,brand").param("size", "5").param("page", "1"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("\"content\":[{\"id\":")))
+				.andExpect(jsonPath("$.content[0].length()").value(3))
+				.andExpect(jsonPath("$.content[0].vendorName").doesNotExist());
+		// página + contagem, sem fotos
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		statistics.clear();
+		mockMvc.perform(get("/vehicles/{id}", vehicles.get(2).getId()).param("fields", "model,photoUrls"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$.photoUrls.length()").value(2));
+		// colunas + fotos
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		mockMvc.perform(get("/vehicles").param("fields", "id,password"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void batchReadKeepsTheRequestOrderAndReportsMissingIds() throws Exception {
+		Statistics statistics = statistics();
+		statistics.clear();
+
+		Long missing = vehicles.get(vehicles.size() - 1).getId() + 1000;
+		String ids = vehicles.get(7).getId() + "," + missing + "," + vehicles.get(2).getId() + "," + vehicles.get(7).getId();
+		mockMvc.perform(get("/vehicles/batch").param("ids", ids))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items.length()").value(2))
+				.andExpect(jsonPath("$.items[0].id").value(vehicles.get(7).getId()))
+				.andExpect(jsonPath("$.items[0].vendorName").value("Vendedor 0"))
+				.andExpect(jsonPath("$.items[0].photoUrls.length()").value(2))
+				.andExpect(jsonPath("$.items[1].id").value(vehicles.get(2).getId()))
+				.andExpect(jsonPath("$.missingIds[0]").value(missing));
+		// veículos com vendedores + fotos
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		statistics.clear();
+		mockMvc.perform(get("/users/batch").param("ids", vendors.get(1).getId() + "," + vendors.get(0).getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items[0].name").value("Vendedor 1"))
+				.andExpect(jsonPath("$.items[1].name").value("Vendedor 0"))
+				.andExpect(jsonPath("$.missingIds.length()").value(0));
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		mockMvc.perform(get("/vehicles/batch").param("ids", ""))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void searchFallsBackToSubstringMatchForTermsUnknownToTheIndex() throws Exception {
+		// Os veículos foram salvos direto no repositório, sem o evento que alimenta o índice de busca
+		mockMvc.perform(get("/vehicles/search").param("q", "MARCA2 odelo7"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()").value(1))
+				.andExpect(jsonPath("$.content[0].id").value(vehicles.get(27).getId()));
+	}
+
+	@Test
+	void conditionalGetOfAnUnchangedVehicleOnlyReadsItsVersion() throws Exception {
+		Long id = vehicles.get(0).getId();
+		String etag = mockMvc.perform(get("/vehicles/{id}", id))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		Statistics statistics = statistics();
+		statistics.clear();
+
+		mockMvc.perform(get("/vehicles/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void gzipAndIdentityBodiesHaveDistinctEtagsThatBothRevalidate() throws Exception {
+		// Fotos suficientes para o JSON passar do tamanho mínimo de compressão
+		List<String> photos = new ArrayList<>();
+		for (int p = 0; p < 20; p++) {
+			photos.add("https://fotos/comprimido/" + p + ".jpg");
+		}
+		Vehicle vehicle = vehicleRepo.save(Vehicle.builder()
+				.brand("Marca0").model("Comprimido").year(2020).color("Preto").price(BigDecimal.valueOf(60000)).vehicleType("Hatch")
+				.photoUrls(photos)
+				.vendor(vendors.get(0))
+				.build());
+		vehicles.add(vehicle);
+
+		String identityEtag = mockMvc.perform(get("/vehicles/{id}", vehicle.getId()))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String gzipEtag = mockMvc.perform(get("/vehicles/{id}", vehicle.getId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(identityEtag, gzipEtag);
+
+		for (String etag : List.of(identityEtag, gzipEtag, "W/" + gzipEtag)) {
+			mockMvc.perform(get("/vehicles/{id}", vehicle.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+					.andExpect(status().isNotModified());
+		}
+		mockMvc.perform(get("/vehicles/{id}", vehicle.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"vehicle-" + vehicle.getId() + "-velho\""))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void repeatedVehicleDetailIsServedFromTheResponseCache() throws Exception {
+		Long id = vehicles.get(1).getId();
+		String body = mockMvc.perform(get("/vehicles/{id}", id))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		Statistics statistics = statistics();
+		statistics.clear();
+
+		mockMvc.perform(get("/vehicles/{id}", id))
+				.andExpect(status().isOk())
+				.andExpect(content().json(body, true));
+
+		// Apenas a leitura da versão
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+}
@@ -0,0 +1,24 @@
+package br.com.autofacil.api.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleControllerTests {
+
+	@Test
+	void gzipIsAcceptedOnlyWithAPositiveWeight() {
+		assertTrue(VehicleController.acceptsGzip("gzip, deflate, br"));
+		assertTrue(VehicleController.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+		assertTrue(VehicleController.acceptsGzip("*"));
+
+		assertFalse(VehicleController.acceptsGzip(null));
+		assertFalse(VehicleController.acceptsGzip("identity"));
+		assertFalse(VehicleController.acceptsGzip("gzip;q=0"));
+		assertFalse(VehicleController.acceptsGzip("gzip ; q=0.000, deflate"));
+		// Uma menção explícita prevalece sobre o curinga
+		assertFalse(VehicleController.acceptsGzip("*;q=1, gzip;q=0"));
+		assertFalse(VehicleController.acceptsGzip("br, *;q=0"));
+	}
+}
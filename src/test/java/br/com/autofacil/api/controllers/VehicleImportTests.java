@@ -0,0 +1,102 @@
+package br.com.autofacil.api.controllers;
+
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.repositories.UserRepo;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import br.com.autofacil.api.services.TokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Importação em massa: relatório por linha e INSERTs em lote (bem menos instruções do que linhas).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class VehicleImportTests {
+
+	private static final int ROWS = 1200;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private VehicleRepo vehicleRepo;
+
+	@Autowired
+	private TokenService tokenService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private User vendor;
+
+	@BeforeEach
+	void setUp() {
+		vendor = userRepo.save(User.builder()
+				.name("Concessionária")
+				.email("frota@import.test")
+				.passwordHash("x")
+				.role(UserRole.VENDOR)
+				.build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		vehicleRepo.deleteAll(vehicleRepo.findAll().stream()
+				.filter(vehicle -> vehicle.getVendor().getId().equals(vendor.getId()))
+				.toList());
+		userRepo.delete(vendor);
+	}
+
+	@Test
+	void importsValidRowsInBatchesAndReportsInvalidOnes() throws Exception {
+		StringBuilder csv = new StringBuilder("brand,model,year,color,price,vehicleType,photoUrls\n");
+		for (int i = 0; i < ROWS; i++) {
+			csv.append("Fiat,\"Uno, Mille\",2010,Branco,15000.50,Hatch,https://fotos/").append(i).append("/1.jpg|https://fotos/").append(i).append("/2.jpg\n");
+		}
+		csv.append("Fiat,Uno,dois mil,Branco,15000,Hatch,\n");
+		csv.append(",Uno,2010,Branco,15000,Hatch,\n");
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		mockMvc.perform(post("/vehicles/import")
+						.header("Authorization", "Bearer " + tokenService.issue(vendor).token())
+						.contentType("text/csv")
+						.content(csv.toString()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.received").value(ROWS + 2))
+				.andExpect(jsonPath("$.imported").value(ROWS))
+				.andExpect(jsonPath("$.failed").value(2))
+				.andExpect(jsonPath("$.rows[0].line").value(2))
+				.andExpect(jsonPath("$.rows[0].vehicleId").isNumber())
+				.andExpect(jsonPath("$.rows[" + ROWS + "].error").value("Ano inválido: dois mil"))
+				.andExpect(jsonPath("$.rows[" + (ROWS + 1) + "].line").value(ROWS + 3));
+
+		long statements = statistics.getPrepareStatementCount();
+		assertTrue(statements < ROWS / 5, "A importação de " + ROWS + " veículos executou " + statements + " instruções SQL");
+	}
+
+	@Test
+	void requiresVendorToken() throws Exception {
+		mockMvc.perform(post("/vehicles/import").contentType("application/x-ndjson").content("{}"))
+				.andExpect(status().isUnauthorized());
+	}
+}
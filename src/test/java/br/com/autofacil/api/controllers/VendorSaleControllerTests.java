@@ -0,0 +1,161 @@
+package br.com.autofacil.api.controllers;
+
+import br.com.autofacil.api.models.PurchaseRequest;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.repositories.PurchaseRequestRepo;
+import br.com.autofacil.api.repositories.UserRepo;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Vendas e aceites simultâneos do mesmo veículo: exatamente um vence, os demais recebem 409 (nunca 500).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class VendorSaleControllerTests {
+
+	private static final int CONCURRENT_SALES = 8;
+
+	// Uma rodada isolada nem sempre intercala as transações; várias rodadas tornam a disputa praticamente certa
+	private static final int ROUNDS = 20;
+
+	// Cada teste usa um email próprio: o cache de credenciais verificadas ainda guardaria o vendedor do teste anterior
+	private static final AtomicInteger VENDORS = new AtomicInteger();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private VehicleRepo vehicleRepo;
+
+	@Autowired
+	private PurchaseRequestRepo purchaseRequestRepo;
+
+	@Autowired
+	private BCryptPasswordEncoder passwordEncoder;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String vendorEmail;
+	private User vendor;
+	private User buyer;
+	private Vehicle vehicle;
+
+	@BeforeEach
+	void setUp() {
+		vendorEmail = "loja" + VENDORS.incrementAndGet() + "@vendas.test";
+		vendor = userRepo.save(User.builder().name("Loja").email(vendorEmail).passwordHash(passwordEncoder.encode("senha")).role(UserRole.VENDOR).build());
+		buyer = userRepo.save(User.builder().name("Cliente").email("cliente@vendas.test").passwordHash("x").role(UserRole.BUYER).build());
+		vehicle = vehicleRepo.save(Vehicle.builder()
+				.brand("Fiat").model("Uno").year(2010).color("Branco").price(BigDecimal.valueOf(15000)).vehicleType("Hatch")
+				.vendor(vendor)
+				.build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		putBackOnSale();
+		vehicleRepo.deleteById(vehicle.getId());
+		userRepo.deleteAll(List.of(buyer, vendor));
+	}
+
+	@Test
+	void concurrentSalesOfTheSameVehicleYieldOneCreatedAndConflicts() throws Exception {
+		List<RequestBuilder> requests = new ArrayList<>();
+		for (int i = 0; i < CONCURRENT_SALES; i++) {
+			requests.add(sale());
+		}
+
+		for (int round = 0; round < ROUNDS; round++) {
+			List<Integer> statuses = performTogether(requests);
+
+			assertEquals(1, statuses.stream().filter(status -> status == 201).count(), statuses.toString());
+			assertEquals(CONCURRENT_SALES - 1, statuses.stream().filter(status -> status == 409).count(), statuses.toString());
+			assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vendor_sale WHERE vehicle_id = ?", Long.class, vehicle.getId()));
+			putBackOnSale();
+		}
+	}
+
+	@Test
+	void acceptRacingADirectSaleYieldsOneSuccessAndOneConflict() throws Exception {
+		for (int round = 0; round < ROUNDS; round++) {
+			PurchaseRequest request = purchaseRequestRepo.save(new PurchaseRequest(vehicle, buyer, vendor));
+
+			List<Integer> statuses = performTogether(List.of(
+					put("/purchase-requests/{id}/accept", request.getId()).contentType(MediaType.APPLICATION_JSON)
+							.content("{\"vendorEmail\":\"" + vendorEmail + "\",\"vendorPassword\":\"senha\"}"),
+					sale()
+			));
+
+			assertEquals(1, statuses.stream().filter(status -> status == 200 || status == 201).count(), statuses.toString());
+			assertEquals(1, statuses.stream().filter(status -> status == 409).count(), statuses.toString());
+			assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vendor_sale WHERE vehicle_id = ?", Long.class, vehicle.getId()));
+			putBackOnSale();
+		}
+	}
+
+	private void putBackOnSale() {
+		jdbcTemplate.update("DELETE FROM vendor_sale WHERE vehicle_id = ?", vehicle.getId());
+		jdbcTemplate.update("DELETE FROM purchase_request WHERE vehicle_id = ?", vehicle.getId());
+		Vehicle unsold = vehicleRepo.findById(vehicle.getId()).orElseThrow();
+		unsold.setSold(false);
+		vehicleRepo.save(unsold);
+	}
+
+	private RequestBuilder sale() {
+		return post("/sales").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"vehicleId\":" + vehicle.getId() + ",\"buyerId\":" + buyer.getId() + ",\"price\":15000," +
+						"\"vendorEmail\":\"" + vendorEmail + "\",\"vendorPassword\":\"senha\"}");
+	}
+
+	private List<Integer> performTogether(List<RequestBuilder> requests) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(requests.size())) {
+			for (RequestBuilder request : requests) {
+				Callable<Integer> call = () -> {
+					start.await();
+					return mockMvc.perform(request).andReturn().getResponse().getStatus();
+				};
+				futures.add(executor.submit(call));
+			}
+			start.countDown();
+
+			List<Integer> statuses = new ArrayList<>();
+			for (Future<Integer> future : futures) {
+				statuses.add(future.get());
+			}
+			return statuses;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package br.com.autofacil.api.repositories;
+
+import br.com.autofacil.api.dtos.user.UserUpdateDTO;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.services.PurchaseRequestService;
+import br.com.autofacil.api.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache de segundo nível: leituras repetidas de usuários e veículos não vão ao banco, e alterações feitas
+ * pelos serviços (inclusive o UPDATE em massa de versões) ficam visíveis na leitura seguinte.
+ */
+@SpringBootTest
+class SecondLevelCacheTests {
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private VehicleRepo vehicleRepo;
+
+	@Autowired
+	private PurchaseRequestRepo purchaseRequestRepo;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private PurchaseRequestService purchaseRequestService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private User vendor;
+	private Vehicle vehicle;
+
+	@BeforeEach
+	void setUp() {
+		vendor = userRepo.save(User.builder().name("Loja").email("loja@cache.test").passwordHash("x").role(UserRole.VENDOR).build());
+		vehicle = vehicleRepo.save(Vehicle.builder()
+				.brand("Fiat").model("Uno").year(2010).color("Branco").price(BigDecimal.valueOf(15000)).vehicleType("Hatch")
+				.vendor(vendor)
+				.build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		purchaseRequestRepo.deleteAll(purchaseRequestRepo.findByVehicleId(vehicle.getId()));
+		vehicleRepo.deleteById(vehicle.getId());
+		userRepo.deleteAll(List.of(vendor));
+	}
+
+	@Test
+	void repeatedLookupsByEmailAndIdDoNotHitTheDatabase() {
+		userRepo.findByEmail("loja@cache.test");
+		vehicleRepo.findById(vehicle.getId());
+		Statistics statistics = statistics();
+
+		assertEquals(vendor.getId(), userRepo.findByEmail("loja@cache.test").orElseThrow().getId());
+		assertEquals("Uno", vehicleRepo.findById(vehicle.getId()).orElseThrow().getModel());
+
+		assertEquals(0, statistics.getPrepareStatementCount(), statistics.toString());
+		assertTrue(statistics.getNaturalIdCacheHitCount() > 0);
+		assertTrue(statistics.getDomainDataRegionStatistics("vehicles").getHitCount() > 0);
+	}
+
+	@Test
+	void updatesThroughTheServicesAreVisibleOnTheNextRead() {
+		userRepo.findByEmail("loja@cache.test");
+		long version = vehicleRepo.findById(vehicle.getId()).orElseThrow().getVersion();
+
+		userService.updateUser(vendor.getId(), new UserUpdateDTO("Loja Nova", "loja.nova@cache.test", null, null));
+
+		assertTrue(userRepo.findByEmail("loja@cache.test").isEmpty());
+		assertEquals("Loja Nova", userRepo.findByEmail("loja.nova@cache.test").orElseThrow().getName());
+		// O incremento de versão é um UPDATE em massa; o Hibernate descarta a região de veículos
+		assertEquals(version + 1, vehicleRepo.findById(vehicle.getId()).orElseThrow().getVersion());
+	}
+
+	@Test
+	void rejectedPurchaseRequestReadsTheVehicleFromTheCache() {
+		User buyer = User.builder().id(vendor.getId()).role(UserRole.VENDOR).build();
+		entityManagerFactory.getCache().evictAll();
+
+		long cold = statementsFor(() -> purchaseRequestService.createPurchaseRequest(vehicle.getId(), buyer));
+		long warm = statementsFor(() -> purchaseRequestService.createPurchaseRequest(vehicle.getId(), buyer));
+
+		// A tentativa de inserção passa pelo JdbcTemplate e não entra na contagem; o veículo lido para
+		// explicar a recusa vem do cache na segunda vez
+		assertEquals(0, warm);
+		assertTrue(cold > warm);
+	}
+
+	private long statementsFor(Runnable purchaseRequest) {
+		Statistics statistics = statistics();
+		assertThrows(IllegalArgumentException.class, purchaseRequest::run);
+		return statistics.getPrepareStatementCount();
+	}
+
+	private Statistics statistics() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		return statistics;
+	}
+}
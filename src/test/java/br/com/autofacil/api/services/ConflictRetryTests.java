@@ -0,0 +1,53 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.exceptions.ConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictRetryTests {
+
+	private MeterRegistry meterRegistry;
+	private ConflictRetry conflictRetry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		conflictRetry = new ConflictRetry(meterRegistry, 3, Duration.ZERO);
+	}
+
+	@Test
+	void retriesUntilTheOperationCommits() {
+		AtomicInteger calls = new AtomicInteger();
+
+		String result = conflictRetry.execute("sale.register", () -> {
+			if (calls.incrementAndGet() < 3) {
+				throw new ObjectOptimisticLockingFailureException("Vehicle", 1L);
+			}
+			return "ok";
+		});
+
+		assertEquals("ok", result);
+		assertEquals(2, meterRegistry.counter("concurrency.retries", "operation", "sale.register").count());
+	}
+
+	@Test
+	void exhaustedRetriesBecomeAConflict() {
+		AtomicInteger calls = new AtomicInteger();
+
+		assertThrows(ConflictException.class, () -> conflictRetry.execute("sale.register", () -> {
+			calls.incrementAndGet();
+			throw new ObjectOptimisticLockingFailureException("Vehicle", 1L);
+		}));
+
+		assertEquals(3, calls.get());
+		assertEquals(1, meterRegistry.counter("concurrency.conflicts.exhausted", "operation", "sale.register").count());
+	}
+}
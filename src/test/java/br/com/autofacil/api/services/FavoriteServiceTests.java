@@ -0,0 +1,168 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.FavoriteCountDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.repositories.UserRepo;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Favoritos com write-behind: só o estado final de cada par é gravado, os contadores acompanham apenas as
+ * linhas de fato gravadas ou removidas e a lista do usuário inclui o que ainda estava no buffer.
+ */
+@SpringBootTest
+class FavoriteServiceTests {
+
+	@Autowired
+	private FavoriteService favoriteService;
+
+	@Autowired
+	private FavoriteCounts favoriteCounts;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private VehicleRepo vehicleRepo;
+
+	@Autowired
+	private VehicleService vehicleService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final List<User> users = new ArrayList<>();
+	private final List<Vehicle> vehicles = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		User vendor = userRepo.save(User.builder().name("Loja").email("loja@favoritos.test").passwordHash("x").role(UserRole.VENDOR).build());
+		users.add(vendor);
+		for (int b = 0; b < 2; b++) {
+			users.add(userRepo.save(User.builder().name("Comprador " + b).email("comprador" + b + "@favoritos.test").passwordHash("x").role(UserRole.BUYER).build()));
+		}
+		for (int i = 0; i < 3; i++) {
+			vehicles.add(vehicleRepo.save(Vehicle.builder()
+					.brand("Fiat").model("Uno " + i).year(2010).color("Branco").price(BigDecimal.valueOf(15000)).vehicleType("Hatch")
+					.photoUrls(List.of("https://fotos/" + i + ".jpg"))
+					.vendor(vendor)
+					.build()));
+		}
+		favoriteService.recount();
+	}
+
+	@AfterEach
+	void tearDown() {
+		favoriteService.flush();
+		jdbcTemplate.update("DELETE FROM favorites");
+		vehicleRepo.deleteAll(vehicles);
+		userRepo.deleteAll(users);
+		favoriteService.recount();
+	}
+
+	@Test
+	void rapidTogglingWritesOnlyTheFinalState() {
+		Long buyer = users.get(1).getId();
+		Long otherBuyer = users.get(2).getId();
+		Long first = vehicles.get(0).getId();
+		Long second = vehicles.get(1).getId();
+		double coalesced = meterRegistry.counter("favorites.coalesced").count();
+		double removals = meterRegistry.counter("favorites.written", "operation", "remove").count();
+
+		favoriteService.addFavorite(buyer, first);
+		favoriteService.removeFavorite(buyer, first);
+		favoriteService.addFavorite(buyer, first);
+		favoriteService.addFavorite(buyer, second);
+		favoriteService.removeFavorite(otherBuyer, second);
+		favoriteService.addFavorite(otherBuyer, first);
+		// Veículo inexistente: nenhuma linha gravada, e o lote segue
+		favoriteService.addFavorite(buyer, vehicles.get(2).getId() + 1000);
+		favoriteService.flush();
+
+		assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorites", Long.class));
+		assertEquals(2, meterRegistry.counter("favorites.coalesced").count() - coalesced);
+		// Desmarcar o que não estava marcado não altera o contador
+		assertEquals(0, meterRegistry.counter("favorites.written", "operation", "remove").count() - removals);
+		assertEquals(2, favoriteCounts.get(first));
+		assertEquals(1, favoriteCounts.get(second));
+		assertEquals(List.of(new FavoriteCountDTO(first, 2), new FavoriteCountDTO(second, 1)), favoriteService.ranking(10));
+
+		favoriteService.removeFavorite(otherBuyer, first);
+		favoriteService.flush();
+		assertEquals(1, favoriteCounts.get(first));
+		assertEquals(List.of(new FavoriteCountDTO(first, 1)), favoriteService.ranking(1));
+
+		// A recarga a partir do banco chega aos mesmos números
+		favoriteService.recount();
+		assertEquals(1, favoriteCounts.get(first));
+		assertEquals(1, favoriteCounts.get(second));
+	}
+
+	@Test
+	void listingIncludesFavoritesStillInTheBuffer() {
+		Long buyer = users.get(1).getId();
+		Long otherBuyer = users.get(2).getId();
+		favoriteService.addFavorite(buyer, vehicles.get(0).getId());
+		favoriteService.addFavorite(buyer, vehicles.get(2).getId());
+		favoriteService.addFavorite(otherBuyer, vehicles.get(1).getId());
+
+		Page<VehicleResponseDTO> page = favoriteService.listFavorites(buyer, 0, 20);
+
+		// Só os pares do próprio usuário foram gravados antes da consulta
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorites WHERE user_id = ?", Long.class, otherBuyer));
+
+		assertEquals(2, page.getTotalElements());
+		assertEquals(vehicles.get(2).getId(), page.getContent().get(0).id());
+		assertEquals(vehicles.get(0).getId(), page.getContent().get(1).id());
+		assertEquals(List.of("https://fotos/0.jpg"), page.getContent().get(1).photoUrls());
+
+		assertThrows(IllegalArgumentException.class, () -> favoriteService.ranking(0));
+	}
+
+	@Test
+	void deletingAFavoritedVehicleOrUserRemovesItsFavorites() {
+		Long buyer = users.get(1).getId();
+		Long otherBuyer = users.get(2).getId();
+		Vehicle vehicle = vehicles.get(0);
+		favoriteService.addFavorite(buyer, vehicle.getId());
+		favoriteService.addFavorite(otherBuyer, vehicle.getId());
+		favoriteService.addFavorite(buyer, vehicles.get(1).getId());
+		favoriteService.addFavorite(otherBuyer, vehicles.get(1).getId());
+		favoriteService.flush();
+
+		vehicleService.deleteVehicle(vehicle.getId());
+		vehicles.remove(vehicle);
+
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorites WHERE vehicle_id = ?", Long.class, vehicle.getId()));
+		assertEquals(0, favoriteCounts.get(vehicle.getId()));
+
+		assertEquals(2, favoriteCounts.get(vehicles.get(0).getId()));
+		userService.deleteUser(otherBuyer);
+		users.remove(2);
+
+		assertEquals(List.of(buyer), jdbcTemplate.queryForList("SELECT user_id FROM favorites", Long.class));
+		assertEquals(1, favoriteCounts.get(vehicles.get(0).getId()));
+	}
+}
@@ -0,0 +1,76 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.events.PurchaseRequestClosedEvent;
+import br.com.autofacil.api.exceptions.ConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PurchaseRequestAdmissionTests {
+
+	private MeterRegistry meterRegistry;
+	private PurchaseRequestAdmission admission;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		admission = new PurchaseRequestAdmission(meterRegistry, Duration.ofMinutes(1), Duration.ofSeconds(10), 20);
+	}
+
+	@Test
+	void onlyTheFirstOfConcurrentRequestsReachesTheDatabase() throws Exception {
+		AtomicInteger creates = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+			for (int i = 0; i < 200; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					try {
+						admission.admit(1L, () -> {
+							if (creates.incrementAndGet() > 1) {
+								throw new ConflictException("pendente");
+							}
+							return "criada";
+						});
+					} catch (ConflictException ignored) {
+						// perdedores
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+
+		assertEquals(1, creates.get());
+		assertEquals(199, meterRegistry.counter("purchase-request.admission.short-circuited").count());
+		assertEquals(0, meterRegistry.get("purchase-request.admission.queue.max").gauge().value());
+	}
+
+	@Test
+	void closingThePendingRequestReopensTheVehicle() {
+		admission.admit(1L, () -> "criada");
+		assertThrows(ConflictException.class, () -> admission.rejectIfClosed(1L));
+		admission.rejectIfClosed(2L);
+
+		admission.onPurchaseRequestClosed(new PurchaseRequestClosedEvent(1L));
+
+		admission.rejectIfClosed(1L);
+	}
+}
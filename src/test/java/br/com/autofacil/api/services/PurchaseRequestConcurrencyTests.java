@@ -0,0 +1,98 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.exceptions.ConflictException;
+import br.com.autofacil.api.models.PurchaseRequestStatus;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import br.com.autofacil.api.models.Vehicle;
+import br.com.autofacil.api.repositories.PurchaseRequestRepo;
+import br.com.autofacil.api.repositories.UserRepo;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Centenas de solicitações simultâneas para o mesmo veículo: exatamente uma fica pendente, as demais recebem conflito.
+ */
+@SpringBootTest
+class PurchaseRequestConcurrencyTests {
+
+	private static final int REQUESTS = 300;
+
+	@Autowired
+	private PurchaseRequestService purchaseRequestService;
+
+	@Autowired
+	private PurchaseRequestRepo purchaseRequestRepo;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private VehicleRepo vehicleRepo;
+
+	private User vendor;
+	private User buyer;
+	private Vehicle vehicle;
+
+	@BeforeEach
+	void setUp() {
+		vendor = userRepo.save(User.builder().name("Loja").email("loja@concorrencia.test").passwordHash("x").role(UserRole.VENDOR).build());
+		buyer = userRepo.save(User.builder().name("Cliente").email("cliente@concorrencia.test").passwordHash("x").role(UserRole.BUYER).build());
+		vehicle = vehicleRepo.save(Vehicle.builder()
+				.brand("Fiat").model("Uno").year(2010).color("Branco").price(BigDecimal.valueOf(15000)).vehicleType("Hatch")
+				.vendor(vendor)
+				.build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		purchaseRequestRepo.deleteAll(purchaseRequestRepo.findByVehicleId(vehicle.getId()));
+		vehicleRepo.delete(vehicle);
+		userRepo.deleteAll(List.of(buyer, vendor));
+	}
+
+	@Test
+	void onlyOneOfManyConcurrentRequestsStaysPending() throws Exception {
+		AtomicInteger conflicts = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+			for (int i = 0; i < REQUESTS; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					try {
+						purchaseRequestService.createPurchaseRequest(vehicle.getId(), buyer);
+					} catch (ConflictException e) {
+						conflicts.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+
+		assertEquals(REQUESTS - 1, conflicts.get());
+		assertEquals(1, purchaseRequestRepo.findByVehicleId(vehicle.getId()).stream()
+				.filter(request -> request.getStatus() == PurchaseRequestStatus.PENDING)
+				.count());
+	}
+}
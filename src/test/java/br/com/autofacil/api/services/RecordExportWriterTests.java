@@ -0,0 +1,60 @@
+package br.com.autofacil.api.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecordExportWriterTests {
+
+	record Row(Long id, String name, Integer year) {}
+
+	private final RecordExportWriter<Row> writer = new RecordExportWriter<>(Row.class, new ObjectMapper());
+
+	@Test
+	void csvHasHeaderAndEscapesSpecialCharacters() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		long written = writer.write(Stream.of(new Row(1L, "Citroën, \"C3\"", 2020), new Row(2L, "Uno", null)), ExportFormat.CSV, output);
+
+		assertEquals(2, written);
+		assertEquals("id,name,year\n1,\"Citroën, \"\"C3\"\"\",2020\n2,Uno,\n", output.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void ndjsonWritesOneObjectPerLine() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		writer.write(Stream.of(new Row(1L, "C3", 2020), new Row(2L, "Uno", 2010)), ExportFormat.NDJSON, output);
+
+		assertEquals("{\"id\":1,\"name\":\"C3\",\"year\":2020}\n{\"id\":2,\"name\":\"Uno\",\"year\":2010}\n",
+				output.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void flushesOncePerBatchOfRows() throws Exception {
+		AtomicInteger flushes = new AtomicInteger();
+		OutputStream output = new ByteArrayOutputStream() {
+			@Override
+			public void flush() {
+				flushes.incrementAndGet();
+			}
+		};
+
+		for (ExportFormat format : ExportFormat.values()) {
+			flushes.set(0);
+			long written = writer.write(IntStream.range(0, 2500).mapToObj(i -> new Row((long) i, "Uno", 2010)), format, output);
+
+			assertEquals(2500, written);
+			// Dois lotes completos de 1000 linhas e o flush final
+			assertEquals(3, flushes.get(), format.name());
+		}
+	}
+}
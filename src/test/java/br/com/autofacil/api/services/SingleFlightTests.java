@@ -0,0 +1,110 @@
+package br.com.autofacil.api.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTests {
+
+	private static final int CALLERS = 16;
+
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void concurrentIdenticalCallsShareOneLoad() throws Exception {
+		SingleFlight singleFlight = new SingleFlight(meterRegistry, Duration.ZERO);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<>();
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(CALLERS)) {
+			for (int i = 0; i < CALLERS; i++) {
+				results.add(executor.submit(() -> singleFlight.execute("vehicle.detail", 1L, () -> {
+					loads.incrementAndGet();
+					await(release);
+					return "veículo 1";
+				})));
+			}
+			// Todas as chamadas já chegaram: uma carregando, as demais esperando por ela
+			while (coalesced() + loads.get() < CALLERS) {
+				Thread.onSpinWait();
+			}
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("veículo 1", result.get(5, TimeUnit.SECONDS));
+			}
+		}
+
+		assertEquals(1, loads.get());
+		assertEquals(CALLERS - 1, coalesced());
+	}
+
+	@Test
+	void failuresReachWaitingCallersAndAreNotKept() throws Exception {
+		SingleFlight singleFlight = new SingleFlight(meterRegistry, Duration.ofMinutes(1));
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+			Future<Object> leader = executor.submit(() -> singleFlight.execute("vehicle.detail", 1L, () -> {
+				await(release);
+				throw new IllegalStateException("banco indisponível");
+			}));
+			while (meterRegistry.counter("single-flight.loads", "operation", "vehicle.detail").count() < 1) {
+				Thread.onSpinWait();
+			}
+			Future<Object> follower = executor.submit(() -> singleFlight.execute("vehicle.detail", 1L, () -> "não deveria carregar"));
+			while (coalesced() < 1) {
+				Thread.onSpinWait();
+			}
+			release.countDown();
+
+			assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, leader::get).getCause());
+			assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, follower::get).getCause());
+		}
+
+		assertEquals("de novo", singleFlight.execute("vehicle.detail", 1L, () -> "de novo"));
+	}
+
+	@Test
+	void resultLingersForCallsArrivingRightAfter() {
+		SingleFlight singleFlight = new SingleFlight(meterRegistry, Duration.ofMinutes(1));
+
+		assertEquals("primeira", singleFlight.execute("vehicle.listing", "Fiat", () -> "primeira"));
+		assertEquals("primeira", singleFlight.execute("vehicle.listing", "Fiat", () -> "segunda"));
+		assertEquals("outra", singleFlight.execute("vehicle.listing", "Toyota", () -> "outra"));
+		assertEquals("outra operação", singleFlight.execute("vehicle.detail", "Fiat", () -> "outra operação"));
+	}
+
+	private double coalesced() {
+		return meterRegistry.counter("single-flight.coalesced", "operation", "vehicle.detail").count();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package br.com.autofacil.api.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketCacheTests {
+
+	private final AtomicLong clock = new AtomicLong();
+	private final TokenBucketCache buckets = new TokenBucketCache(100_000, 3, 6, clock::get);
+
+	@Test
+	void allowsABurstThenRefillsOverTime() {
+		for (int i = 0; i < 3; i++) {
+			assertTrue(buckets.tryAcquire("alvo@example.com"));
+		}
+		assertFalse(buckets.tryAcquire("alvo@example.com"));
+		assertEquals(10, buckets.secondsUntilAvailable("alvo@example.com"));
+
+		clock.addAndGet(10_000);
+
+		assertTrue(buckets.tryAcquire("alvo@example.com"));
+		assertFalse(buckets.tryAcquire("alvo@example.com"));
+	}
+
+	@Test
+	void aFloodOfOtherKeysDoesNotLockOutANewOne() {
+		// Muito mais chaves esgotadas do que caberiam nas células de um sketch
+		for (int key = 0; key < 20_000; key++) {
+			for (int i = 0; i < 3; i++) {
+				buckets.tryAcquire("ataque" + key + "@example.com");
+			}
+		}
+
+		assertTrue(buckets.tryAcquire("legitimo@example.com"));
+	}
+}
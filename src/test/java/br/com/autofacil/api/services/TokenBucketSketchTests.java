@@ -0,0 +1,48 @@
+package br.com.autofacil.api.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketSketchTests {
+
+	private final AtomicLong clock = new AtomicLong();
+	private final TokenBucketSketch sketch = new TokenBucketSketch(1024, 3, 6, clock::get);
+
+	@Test
+	void allowsABurstThenRefillsOverTime() {
+		for (int i = 0; i < 3; i++) {
+			assertTrue(sketch.tryAcquire("alvo@example.com"));
+		}
+		assertFalse(sketch.tryAcquire("alvo@example.com"));
+		assertEquals(10, sketch.secondsUntilAvailable("alvo@example.com"));
+
+		clock.addAndGet(10_000);
+
+		assertTrue(sketch.tryAcquire("alvo@example.com"));
+		assertFalse(sketch.tryAcquire("alvo@example.com"));
+	}
+
+	@Test
+	void keysAreLimitedIndependently() {
+		for (int i = 0; i < 3; i++) {
+			sketch.tryAcquire("alvo@example.com");
+		}
+
+		assertFalse(sketch.tryAcquire("alvo@example.com"));
+		assertTrue(sketch.tryAcquire("outro@example.com"));
+	}
+
+	@Test
+	void keysWithTheSameStringHashCodeDoNotShareCells() {
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		for (int i = 0; i < 3; i++) {
+			sketch.tryAcquire("Aa");
+		}
+
+		assertFalse(sketch.tryAcquire("Aa"));
+		assertTrue(sketch.tryAcquire("BB"));
+	}
+}
@@ -0,0 +1,54 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.TokenResponseDTO;
+import br.com.autofacil.api.models.User;
+import br.com.autofacil.api.models.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTests {
+
+	private static final Instant NOW = Instant.parse("2025-06-11T15:00:00Z");
+
+	private final User vendor = User.builder().id(7L).role(UserRole.VENDOR).build();
+
+	@Test
+	void issuedTokenIsAccepted() {
+		TokenService tokenService = new TokenService("segredo", Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+
+		TokenResponseDTO issued = tokenService.issue(vendor);
+		TokenService.Claims claims = tokenService.verify(issued.token()).orElseThrow();
+
+		assertEquals(7L, claims.userId());
+		assertEquals(UserRole.VENDOR, claims.role());
+		assertEquals(NOW.plus(Duration.ofHours(1)), claims.expiresAt());
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		String token = new TokenService("segredo", Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC))
+				.issue(vendor).token();
+
+		TokenService later = new TokenService("segredo", Duration.ofHours(1), Clock.fixed(NOW.plus(Duration.ofHours(2)), ZoneOffset.UTC));
+		assertTrue(later.verify(token).isEmpty());
+	}
+
+	@Test
+	void tamperedOrForeignTokenIsRejected() {
+		TokenService tokenService = new TokenService("segredo", Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+		String token = tokenService.issue(vendor).token();
+
+		String otherPayload = tokenService.issue(User.builder().id(8L).role(UserRole.ADMIN).build()).token().split("\\.")[0];
+		String forged = otherPayload + "." + token.split("\\.")[1];
+
+		assertTrue(tokenService.verify(forged).isEmpty());
+		assertTrue(tokenService.verify("lixo").isEmpty());
+		assertTrue(new TokenService("outro-segredo", Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC)).verify(token).isEmpty());
+	}
+}
@@ -0,0 +1,104 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.FacetCountDTO;
+import br.com.autofacil.api.dtos.vehicle.RangeCountDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleFacetsDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleFilterDTO;
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import br.com.autofacil.api.repositories.VehicleRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VehicleCatalogTests {
+
+	private VehicleSearchIndex searchIndex;
+	private VehicleCatalog catalog;
+
+	@BeforeEach
+	void setUp() {
+		VehicleRepo vehicleRepo = mock(VehicleRepo.class);
+		when(vehicleRepo.findUnsoldForCatalog()).thenReturn(List.of());
+		when(vehicleRepo.findUnsoldPhotoUrls()).thenReturn(List.of());
+		when(vehicleRepo.findDistinctBrands()).thenReturn(List.of());
+		when(vehicleRepo.findDistinctModels()).thenReturn(List.of());
+
+		searchIndex = new VehicleSearchIndex(vehicleRepo);
+		catalog = new VehicleCatalog(vehicleRepo, searchIndex, new SimpleMeterRegistry());
+		catalog.rebuild();
+
+		save(vehicle(1L, "Citroën", "C3", 2020, false));
+		save(vehicle(2L, "Toyota", "Corolla", 2022, false));
+		save(vehicle(3L, "Citroën", "C4 Cactus", 2022, false));
+	}
+
+	@Test
+	void filtersAndPagesByIdDescending() {
+		Page<VehicleResponseDTO> page = catalog.query(new VehicleFilterDTO("citroen", null, null, false, null, null, null, null), PageRequest.of(0, 1));
+
+		assertEquals(2, page.getTotalElements());
+		assertEquals(List.of(3L), ids(page));
+		assertEquals(List.of(2L, 3L), ids(catalog.query(new VehicleFilterDTO(null, null, 2022, false, null, null, null, null), PageRequest.of(0, 10))).reversed());
+		assertEquals(new BigDecimal("50000.00"), page.getContent().get(0).price());
+	}
+
+	@Test
+	void facetsCountTheFilteredVehicles() {
+		save(new VehicleResponseDTO(4L, "Fiat", "Uno", 2010, "Branco", BigDecimal.valueOf(15000), "Hatch", false, List.of(), 1L, "Vendedor"));
+
+		VehicleFacetsDTO facets = catalog.facets(new VehicleFilterDTO(null, null, null, false, null, null, "hatch", "preto"), PageRequest.of(0, 10));
+
+		assertEquals(3, facets.hits().getTotalElements());
+		assertEquals(List.of(new FacetCountDTO("Citroën", 2), new FacetCountDTO("Toyota", 1)), facets.brands());
+		assertEquals(List.of(new RangeCountDTO<>(2020, 2025, 3L)), facets.years());
+		assertEquals(3, facets.prices().get(1).count());
+	}
+
+	@Test
+	void soldAndDeletedVehiclesLeaveTheCatalog() {
+		save(vehicle(3L, "Citroën", "C4 Cactus", 2022, true));
+		catalog.onVehicleChanged(VehicleChangedEvent.deleted(2L));
+
+		assertEquals(List.of(1L), ids(catalog.query(VehicleFilterDTO.none(), PageRequest.of(0, 10))));
+	}
+
+	@Test
+	void vehicleReturningToTheCatalogKeepsIdOrder() {
+		save(vehicle(2L, "Toyota", "Corolla", 2022, true));
+		save(vehicle(4L, "Fiat", "Uno", 2010, false));
+		save(vehicle(2L, "Toyota", "Corolla", 2022, false));
+
+		assertEquals(List.of(4L, 3L, 2L, 1L), ids(catalog.query(VehicleFilterDTO.none(), PageRequest.of(0, 10))));
+	}
+
+	@Test
+	void brandUnknownToTheSearchIndexFallsBackToSubstringMatch() {
+		// Gravado por outra instância: chega ao catálogo sem passar pelo índice de busca
+		catalog.onVehicleChanged(VehicleChangedEvent.saved(vehicle(4L, "Peugeot", "208", 2021, false)));
+
+		assertEquals(List.of(4L), ids(catalog.query(new VehicleFilterDTO("PEUG", null, null, false, null, null, null, null), PageRequest.of(0, 10))));
+	}
+
+	private void save(VehicleResponseDTO vehicle) {
+		searchIndex.add(vehicle.brand(), vehicle.model());
+		catalog.onVehicleChanged(VehicleChangedEvent.saved(vehicle));
+	}
+
+	private static VehicleResponseDTO vehicle(Long id, String brand, String model, int year, boolean sold) {
+		return new VehicleResponseDTO(id, brand, model, year, "Preto", BigDecimal.valueOf(50000), "Hatch", sold, List.of(), 1L, "Vendedor");
+	}
+
+	private static List<Long> ids(Page<VehicleResponseDTO> page) {
+		return page.getContent().stream().map(VehicleResponseDTO::id).toList();
+	}
+}
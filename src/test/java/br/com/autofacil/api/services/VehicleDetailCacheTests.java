@@ -0,0 +1,50 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.dtos.vehicle.VehicleResponseDTO;
+import br.com.autofacil.api.events.VehicleChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleDetailCacheTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final VehicleDetailCache cache = new VehicleDetailCache(objectMapper, new SimpleMeterRegistry(), DataSize.ofMegabytes(1), true);
+
+	@Test
+	void entriesAreServedOnlyForTheCurrentVersion() throws Exception {
+		VehicleDetailCache.CachedVehicle cached = cache.put(3, vehicle(List.of("https://fotos/1.jpg")));
+
+		assertEquals(1L, objectMapper.readTree(cached.json()).get("id").asLong());
+		assertSame(cached, cache.get(1L, 3).orElseThrow());
+		assertTrue(cache.get(1L, 4).isEmpty());
+
+		cache.onVehicleChanged(VehicleChangedEvent.deleted(1L));
+		assertTrue(cache.get(1L, 3).isEmpty());
+	}
+
+	@Test
+	void largeResponsesArePreCompressed() throws Exception {
+		VehicleDetailCache.CachedVehicle cached = cache.put(0, vehicle(Collections.nCopies(20, "https://fotos/veiculo/1/foto.jpg")));
+
+		assertNotNull(cached.gzipped());
+		assertTrue(cached.gzipped().length < cached.json().length);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(cached.gzipped()))) {
+			assertArrayEquals(cached.json(), in.readAllBytes());
+		}
+		assertNull(cache.put(0, vehicle(List.of())).gzipped());
+	}
+
+	private static VehicleResponseDTO vehicle(List<String> photoUrls) {
+		return new VehicleResponseDTO(1L, "Fiat", "Uno", 2010, "Branco", BigDecimal.valueOf(15000), "Hatch", false, photoUrls, 2L, "Loja");
+	}
+}
@@ -0,0 +1,80 @@
+package br.com.autofacil.api.services;
+
+import br.com.autofacil.api.repositories.VehicleRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VehicleSearchIndexTests {
+
+	private VehicleSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		VehicleRepo vehicleRepo = mock(VehicleRepo.class);
+		when(vehicleRepo.findDistinctBrands()).thenReturn(List.of("Citroën", "Toyota", "Mercedes-Benz"));
+		when(vehicleRepo.findDistinctModels()).thenReturn(List.of("C3 Aircross", "Corolla", "Classe C"));
+
+		index = new VehicleSearchIndex(vehicleRepo);
+		index.refresh();
+	}
+
+	@Test
+	void matchingIgnoresCaseAndAccents() {
+		assertEquals(Set.of("Citroën"), index.matchingBrands("citroen"));
+		assertEquals(Set.of("Citroën"), index.matchingBrands("CITROËN"));
+	}
+
+	@Test
+	void everyTermMustMatch() {
+		assertEquals(Set.of("Mercedes-Benz"), index.matchingBrands("mercedes benz"));
+		assertEquals(Set.of(), index.matchingBrands("mercedes toyota"));
+	}
+
+	@Test
+	void keepsSubstringMatchesOfThePreviousLikeFilter() {
+		assertEquals(Set.of("Toyota"), index.matchingBrands("oyo"));
+	}
+
+	@Test
+	void exactTermsScoreHigherThanPrefixesAndSubstrings() {
+		Map<String, Integer> models = index.match("c").get(0).models();
+
+		assertEquals(VehicleSearchIndex.EXACT, models.get("Classe C"));
+		assertEquals(VehicleSearchIndex.PREFIX, models.get("Corolla"));
+		assertEquals(VehicleSearchIndex.PREFIX, models.get("C3 Aircross"));
+	}
+
+	@Test
+	void valuesAddedAfterRefreshAreSearchable() {
+		index.add("Fiat", "Uno");
+
+		assertEquals(Set.of("Fiat"), index.matchingBrands("fi"));
+		assertEquals(Set.of("Uno"), index.matchingModels("uno"));
+	}
+
+	@Test
+	void valuesAddedDuringRefreshSurviveTheSwap() {
+		VehicleRepo vehicleRepo = mock(VehicleRepo.class);
+		VehicleSearchIndex concurrent = new VehicleSearchIndex(vehicleRepo);
+		// O veículo é confirmado depois que o banco foi lido, mas antes da troca dos campos
+		when(vehicleRepo.findDistinctBrands()).thenAnswer(invocation -> {
+			concurrent.add("Fiat", "Uno");
+			return List.of("Toyota");
+		});
+		when(vehicleRepo.findDistinctModels()).thenReturn(List.of("Corolla"));
+
+		concurrent.refresh();
+
+		assertEquals(Set.of("Fiat"), concurrent.matchingBrands("fiat"));
+		assertEquals(Set.of("Uno"), concurrent.matchingModels("uno"));
+		assertEquals(Set.of("Toyota"), concurrent.matchingBrands("toyota"));
+	}
+}